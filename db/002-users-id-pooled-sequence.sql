@@ -0,0 +1,10 @@
+-- One-off migration for databases created from an older init.sql (users.id BIGSERIAL stepping by 1).
+-- Run once before starting the application with pooled-lo id allocation.
+BEGIN;
+
+LOCK TABLE users IN EXCLUSIVE MODE;
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+
+COMMIT;
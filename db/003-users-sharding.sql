@@ -0,0 +1,11 @@
+-- Run on every shard used by ShardedUserDao, after init.sql.
+-- Ids are nextval(users_shard_local_seq) << 10 | <shard index> (ShardedUserDao.SHARD_BITS), so each
+-- shard's sequence only has to be unique locally and ids keep their shard when shards are added.
+CREATE SEQUENCE IF NOT EXISTS users_shard_local_seq;
+
+-- email -> id for users whose email hashes to this shard; keeps emails unique across shards
+CREATE TABLE IF NOT EXISTS users_email_directory
+(
+    email   VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT NOT NULL
+);
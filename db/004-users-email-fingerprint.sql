@@ -0,0 +1,8 @@
+-- One-off migration for databases created from an older init.sql (no email_fp column).
+-- Adding a stored generated column rewrites the table under an ACCESS EXCLUSIVE lock, so run it in a quiet window.
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_fp BIGINT GENERATED ALWAYS AS (hashtextextended(lower(email), 0)) STORED;
+CREATE INDEX IF NOT EXISTS users_email_fp_idx ON users (email_fp);
+
+COMMIT;
@@ -8,3 +8,11 @@ CREATE TABLE IF NOT EXISTS users
 );
 
 CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email ON users (email);
+
+-- Hibernate allocates ids in blocks of 50 (pooled-lo), so the sequence must step by the same amount.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+
+-- 64-bit hash of the normalized email; lookups probe this narrow index and then compare the full email.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_fp BIGINT GENERATED ALWAYS AS (hashtextextended(lower(email), 0)) STORED;
+CREATE INDEX IF NOT EXISTS users_email_fp_idx ON users (email_fp);
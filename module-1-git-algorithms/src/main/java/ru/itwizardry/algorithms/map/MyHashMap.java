@@ -1,6 +1,7 @@
 package ru.itwizardry.algorithms.map;
 
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 public class MyHashMap<K, V> implements MyMap<K, V> {
     private static final int INITIAL_CAPACITY = 16;
@@ -98,6 +99,16 @@ public class MyHashMap<K, V> implements MyMap<K, V> {
         size = 0;
     }
 
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        for (Entry<K, V> head : table) {
+            for (Entry<K, V> current = head; current != null; current = current.next) {
+                action.accept(current.key, current.value);
+            }
+        }
+    }
+
     private int getElementPosition(K key, int arrayLength) {
         if (key == null) {
             return 0;
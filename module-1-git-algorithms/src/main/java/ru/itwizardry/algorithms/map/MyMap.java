@@ -1,5 +1,7 @@
 package ru.itwizardry.algorithms.map;
 
+import java.util.function.BiConsumer;
+
 public interface MyMap<K, V> {
     V put(K key, V value);
 
@@ -10,4 +12,6 @@ public interface MyMap<K, V> {
     int size();
 
     void clear();
+
+    void forEach(BiConsumer<? super K, ? super V> action);
 }
@@ -3,6 +3,9 @@ package ru.itwizardry.algorithms.map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -130,7 +133,21 @@ class MyHashMapTest {
         assertNull(map.get("b"));
     }
 
+    @Test
+    void forEachShouldVisitEveryEntryOnceIncludingCollisions() {
+        MyMap<BadHashKey, Integer> m = new MyHashMap<>();
+        for (int i = 0; i < 30; i++) {
+            m.put(new BadHashKey("k" + i), i);
+        }
+        m.remove(new BadHashKey("k7"));
 
+        Map<String, Integer> visited = new HashMap<>();
+        m.forEach((key, value) -> assertNull(visited.put(key.id, value)));
+
+        assertEquals(29, visited.size());
+        assertNull(visited.get("k7"));
+        assertEquals(29, visited.get("k29"));
+    }
 
     private static final class BadHashKey {
         private final String id;
@@ -0,0 +1,190 @@
+package ru.itwizardry.userservice.app;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.SessionFactory;
+import ru.itwizardry.userservice.dao.JdbcUserDao;
+import ru.itwizardry.userservice.dao.UserBatchWriter;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.dao.memory.InMemoryUserDao;
+import ru.itwizardry.userservice.dao.metrics.DaoMetrics;
+import ru.itwizardry.userservice.dao.metrics.DaoMetricsReporter;
+import ru.itwizardry.userservice.dao.proxy.CachingUserDaoProxy;
+import ru.itwizardry.userservice.dao.proxy.DaoInterceptor;
+import ru.itwizardry.userservice.dao.proxy.DefaultUserDaoLogFormatter;
+import ru.itwizardry.userservice.dao.proxy.InterceptingUserDaoProxy;
+import ru.itwizardry.userservice.dao.proxy.JfrDaoInterceptor;
+import ru.itwizardry.userservice.dao.proxy.LoggingDaoInterceptor;
+import ru.itwizardry.userservice.dao.proxy.MetricsDaoInterceptor;
+import ru.itwizardry.userservice.dao.proxy.SlowOperationDaoInterceptor;
+import ru.itwizardry.userservice.dao.proxy.SlowQueryExplainer;
+import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.dao.proxy.WriteBehindUserDaoProxy;
+import ru.itwizardry.userservice.importer.PgCopyUserImporter;
+import ru.itwizardry.userservice.service.UserService;
+import ru.itwizardry.userservice.service.UserServiceImpl;
+import ru.itwizardry.userservice.util.DataSourceUtil;
+import ru.itwizardry.userservice.util.HibernateUtil;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Wires the DAO stack shared by all entry points:
+ * {@code InterceptingUserDaoProxy -> CachingUserDaoProxy -> [WriteBehindUserDaoProxy] -> TransactionalUserDaoProxy}.
+ * Write-behind is enabled with {@code USER_DAO_WRITE_BEHIND=true}; {@code USER_DAO_TIMEOUT_MS}
+ * sets the default deadline of DAO calls ({@code 0} = none). Calls slower than {@code USER_DAO_SLOW_MS}
+ * ({@code 0} = off) go to the slow-operation log with an EXPLAIN plan, at most
+ * {@code USER_DAO_SLOW_EXPLAINS_PER_MIN} plans per minute.
+ * <p>
+ * {@code USER_DAO_STORAGE=memory} replaces PostgreSQL with {@link InMemoryUserDao}, durable in
+ * {@code USER_DAO_MEMORY_DIR} (volatile when unset); {@code USER_DAO_STORAGE=jdbc} replaces Hibernate with
+ * {@link JdbcUserDao} on a pooled DataSource. CSV import and EXPLAIN need Hibernate and are unavailable
+ * in both modes.
+ */
+public final class AppContext implements AutoCloseable {
+
+    private static final Duration METRICS_REPORT_PERIOD = Duration.ofMinutes(1);
+    private static final Duration EXPLAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final SessionFactory sessionFactory;
+    private final CachingUserDaoProxy cache;
+    private final WriteBehindUserDaoProxy writeBehind;
+    private final DaoMetrics metrics;
+    private final DaoMetricsReporter metricsReporter;
+    private final SlowQueryExplainer explainer;
+    private final UserService userService;
+    private final PgCopyUserImporter importer;
+    private final InMemoryUserDao memoryStore;
+    private final HikariDataSource dataSource;
+
+    private AppContext() {
+        Duration daoTimeout = Duration.ofMillis(Long.parseLong(env("USER_DAO_TIMEOUT_MS", "0")));
+        Duration slowThreshold = Duration.ofMillis(Long.parseLong(env("USER_DAO_SLOW_MS", "500")));
+
+        UserDao storage;
+        UserBatchWriter batchWriter;
+        String storageMode = env("USER_DAO_STORAGE", "postgres");
+        if ("memory".equalsIgnoreCase(storageMode)) {
+            String dir = env("USER_DAO_MEMORY_DIR", "");
+            this.memoryStore = dir.isBlank()
+                    ? new InMemoryUserDao()
+                    : new InMemoryUserDao(InMemoryUserDao.Settings.durable(Path.of(dir)));
+            this.dataSource = null;
+            this.sessionFactory = null;
+            storage = memoryStore;
+            batchWriter = null;
+        } else if ("jdbc".equalsIgnoreCase(storageMode)) {
+            this.memoryStore = null;
+            this.dataSource = DataSourceUtil.createDataSourceFromEnv();
+            this.sessionFactory = null;
+            JdbcUserDao jdbc = new JdbcUserDao(dataSource, daoTimeout);
+            storage = jdbc;
+            batchWriter = jdbc;
+        } else {
+            this.memoryStore = null;
+            this.dataSource = null;
+            this.sessionFactory = HibernateUtil.getSessionFactory();
+            TransactionalUserDaoProxy transactional = new TransactionalUserDaoProxy(sessionFactory, daoTimeout);
+            storage = transactional;
+            batchWriter = transactional;
+        }
+
+        if (batchWriter != null && Boolean.parseBoolean(System.getenv("USER_DAO_WRITE_BEHIND"))) {
+            this.writeBehind = new WriteBehindUserDaoProxy(
+                    storage, batchWriter, WriteBehindUserDaoProxy.Settings.defaults()
+            ).installShutdownHook();
+            storage = writeBehind;
+        } else {
+            this.writeBehind = null;
+        }
+
+        this.cache = new CachingUserDaoProxy(storage);
+
+        this.metrics = new DaoMetrics();
+        metrics.registerMBeans();
+        this.metricsReporter = new DaoMetricsReporter(metrics, METRICS_REPORT_PERIOD);
+
+        List<DaoInterceptor> interceptors = new ArrayList<>();
+        if (slowThreshold.isZero()) {
+            this.explainer = null;
+        } else if (sessionFactory == null) {
+            this.explainer = null;
+            interceptors.add(new SlowOperationDaoInterceptor(slowThreshold, new DefaultUserDaoLogFormatter()));
+        } else {
+            this.explainer = new SlowQueryExplainer(sessionFactory,
+                    Integer.parseInt(env("USER_DAO_SLOW_EXPLAINS_PER_MIN", "6")), EXPLAIN_TIMEOUT);
+            interceptors.add(new SlowOperationDaoInterceptor(
+                    slowThreshold, new DefaultUserDaoLogFormatter(), explainer));
+        }
+        interceptors.add(new JfrDaoInterceptor());
+        interceptors.add(new LoggingDaoInterceptor(new DefaultUserDaoLogFormatter()));
+        interceptors.add(new MetricsDaoInterceptor(metrics));
+
+        UserDao dao = new InterceptingUserDaoProxy(cache, interceptors);
+
+        this.userService = new UserServiceImpl(dao);
+        this.importer = sessionFactory == null ? null : new PgCopyUserImporter(sessionFactory);
+    }
+
+    public static AppContext create() {
+        return new AppContext();
+    }
+
+    /**
+     * {@code null} unless the storage is PostgreSQL through Hibernate.
+     */
+    public SessionFactory sessionFactory() {
+        return sessionFactory;
+    }
+
+    public CachingUserDaoProxy cache() {
+        return cache;
+    }
+
+    public DaoMetrics metrics() {
+        return metrics;
+    }
+
+    public UserService userService() {
+        return userService;
+    }
+
+    /**
+     * {@code null} with in-memory or plain JDBC storage: COPY import needs the Hibernate SessionFactory.
+     */
+    public PgCopyUserImporter importer() {
+        return importer;
+    }
+
+    @Override
+    public void close() {
+        try {
+            metricsReporter.close();
+            if (writeBehind != null) {
+                writeBehind.close();
+            }
+            if (explainer != null) {
+                explainer.close();
+            }
+            cache.logStats();
+            metrics.unregisterMBeans();
+            if (memoryStore != null) {
+                memoryStore.close();
+            }
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        } finally {
+            if (sessionFactory != null) {
+                HibernateUtil.shutdown();
+            }
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        return Objects.requireNonNullElse(System.getenv(name), defaultValue);
+    }
+}
@@ -1,33 +1,41 @@
 package ru.itwizardry.userservice.app;
 
-import ru.itwizardry.userservice.dao.UserDao;
-import ru.itwizardry.userservice.dao.proxy.DefaultUserDaoLogFormatter;
-import ru.itwizardry.userservice.dao.proxy.LoggingUserDaoProxy;
-import ru.itwizardry.userservice.dao.proxy.MaskingUserDaoProxy;
-import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.dao.proxy.CachingUserDaoProxy;
+import ru.itwizardry.userservice.export.UserCsvWriter;
+import ru.itwizardry.userservice.http.UserHttpServer;
+import ru.itwizardry.userservice.importer.DuplicateEmailPolicy;
+import ru.itwizardry.userservice.importer.ImportResult;
+import ru.itwizardry.userservice.importer.PgCopyUserImporter;
+import ru.itwizardry.userservice.load.LoadDriver;
+import ru.itwizardry.userservice.load.WorkloadSpec;
 import ru.itwizardry.userservice.service.UserService;
-import ru.itwizardry.userservice.service.UserServiceImpl;
-import ru.itwizardry.userservice.util.HibernateUtil;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class Main {
 
-    public static void main(String[] args) {
-        var sf = HibernateUtil.getSessionFactory();
-
-        UserDao dao =
-                new LoggingUserDaoProxy(
-                        new MaskingUserDaoProxy(
-                                new TransactionalUserDaoProxy(sf)
-                        ),
-                        new DefaultUserDaoLogFormatter()
-                );
+    private static final int DEFAULT_HTTP_PORT = 8081;
 
-        UserService userService = new UserServiceImpl(dao);
+    public static void main(String[] args) {
+        if (args.length > 0 && "--load".equals(args[0])) {
+            runLoad(args);
+            return;
+        }
+        if (args.length > 0 && "--http".equals(args[0])) {
+            runHttp(args);
+            return;
+        }
 
+        try (AppContext context = AppContext.create();
+             Scanner in = new Scanner(System.in)) {
+            UserService userService = context.userService();
 
-        try (Scanner in = new Scanner(System.in)) {
             while (true) {
                 printMenu();
                 String cmd = in.nextLine().trim();
@@ -39,6 +47,8 @@ public class Main {
                         case "3" -> getByEmail(in, userService);
                         case "4" -> update(in, userService);
                         case "5" -> delete(in, userService);
+                        case "6" -> exportCsv(in, userService);
+                        case "7" -> importCsv(in, context.importer(), context.cache());
                         case "0" -> {
                             System.out.println("Goodbye");
                             return;
@@ -47,15 +57,61 @@ public class Main {
                     }
                 } catch (NumberFormatException e) {
                     System.out.println("Id/Age must be a number.");
+                } catch (DaoTimeoutException e) {
+                    System.out.println("Timed out: " + e.getMessage());
                 } catch (IllegalArgumentException | IllegalStateException e) {
                     System.out.println("Error: " + e.getMessage());
+                } catch (IOException | UncheckedIOException e) {
+                    System.out.println("I/O error: " + e.getMessage());
                 }
             }
-        } finally {
-            HibernateUtil.shutdown();
         }
     }
 
+    private static void runLoad(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: Main --load <workload.properties>");
+            System.exit(2);
+        }
+
+        WorkloadSpec spec;
+        try {
+            spec = WorkloadSpec.load(Path.of(args[1]));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read workload " + args[1], e);
+        }
+
+        try (AppContext context = AppContext.create()) {
+            new LoadDriver(context.userService(), spec).run().print(System.out);
+        }
+    }
+
+    /**
+     * Serves {@link UserService} over HTTP until the JVM is stopped; the context is closed by a shutdown hook.
+     */
+    private static void runHttp(String[] args) {
+        if (args.length > 2) {
+            System.err.println("Usage: Main --http [port]");
+            System.exit(2);
+        }
+        int port = args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+
+        AppContext context = AppContext.create();
+        UserHttpServer server;
+        try {
+            server = UserHttpServer.start(context.userService(), new InetSocketAddress(port));
+        } catch (IOException e) {
+            context.close();
+            throw new UncheckedIOException("Cannot bind port " + port, e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            context.close();
+        }, "user-http-shutdown"));
+
+        System.out.println("Listening on http://localhost:" + server.port() + UserHttpServer.BASE_PATH);
+    }
+
     private static void printMenu() {
         System.out.println("""
                 === User Service ===
@@ -64,6 +120,8 @@ public class Main {
                 3) Get User by email
                 4) Update User
                 5) Delete User
+                6) Export Users to CSV
+                7) Bulk import Users from CSV
                 0) Exit
                 """);
         System.out.print("Select: ");
@@ -123,4 +181,40 @@ public class Main {
         service.delete(id);
         System.out.println("Deleted (or not found).");
     }
+
+    private static void exportCsv(Scanner in, UserService service) throws IOException {
+        System.out.print("File: ");
+        Path file = Path.of(in.nextLine().trim());
+
+        long exported;
+        try (UserCsvWriter writer = new UserCsvWriter(file)) {
+            exported = service.exportAll(writer);
+        }
+        System.out.println("Exported " + exported + " users to " + file.toAbsolutePath());
+    }
+
+    private static void importCsv(Scanner in, PgCopyUserImporter importer, CachingUserDaoProxy cache)
+            throws IOException {
+        if (importer == null) {
+            System.out.println("CSV import needs PostgreSQL storage (USER_DAO_STORAGE=postgres)");
+            return;
+        }
+        System.out.print("File: ");
+        Path file = Path.of(in.nextLine().trim());
+
+        System.out.print("Update existing emails? (y/N): ");
+        DuplicateEmailPolicy policy = in.nextLine().trim().equalsIgnoreCase("y")
+                ? DuplicateEmailPolicy.UPDATE
+                : DuplicateEmailPolicy.SKIP;
+
+        Path rejects = file.resolveSibling(file.getFileName() + ".rejects.csv");
+        ImportResult result = importer.importCsv(file, rejects, policy);
+        cache.invalidateAll();
+
+        System.out.println("Read: " + result.rowsRead()
+                + ", inserted: " + result.inserted()
+                + ", updated: " + result.updated()
+                + ", rejected: " + (result.rejected() + result.duplicates())
+                + " (see " + rejects.toAbsolutePath() + ")");
+    }
 }
@@ -0,0 +1,36 @@
+package ru.itwizardry.userservice.app;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Starts the application up to the first database query, prints the timings and exits.
+ * Used as the AppCDS training run and by the {@code startupBenchmark} Gradle task.
+ * <p>
+ * The probe goes through {@link ru.itwizardry.userservice.service.UserService}, so it works with every
+ * {@code USER_DAO_STORAGE} and loads the same classes as the first real request.
+ */
+public final class StartupProbe {
+
+    private static final long PROBE_ID = 0L;
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) {
+        long jvmStartMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long mainMs = System.currentTimeMillis();
+
+        try (AppContext context = AppContext.create()) {
+            long readyMs = System.currentTimeMillis();
+
+            context.userService().getById(PROBE_ID);
+            long firstQueryMs = System.currentTimeMillis();
+
+            System.out.printf("time-to-first-query=%dms (jvm=%dms, bootstrap=%dms, query=%dms)%n",
+                    firstQueryMs - jvmStartMs,
+                    mainMs - jvmStartMs,
+                    readyMs - mainMs,
+                    firstQueryMs - readyMs);
+        }
+    }
+}
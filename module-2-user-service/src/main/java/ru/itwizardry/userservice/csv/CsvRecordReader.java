@@ -0,0 +1,62 @@
+package ru.itwizardry.userservice.csv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Reads CSV records rather than lines: a quoted field may span several lines, as written by
+ * {@link CsvFormat#appendField}. Line breaks inside quotes are returned as {@code \n}.
+ */
+public final class CsvRecordReader {
+
+    private final BufferedReader reader;
+    private long linesRead;
+    private long recordLine;
+
+    public CsvRecordReader(BufferedReader reader) {
+        this.reader = Objects.requireNonNull(reader, "reader must not be null");
+    }
+
+    /**
+     * The next record, or {@code null} at the end of input. A record whose quote is still open at
+     * the end of input is returned as is; {@link CsvFormat#parseLine} rejects it.
+     */
+    public String next() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        recordLine = ++linesRead;
+
+        boolean quoted = opensQuote(line, false);
+        if (!quoted) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        while (quoted && (line = reader.readLine()) != null) {
+            linesRead++;
+            record.append('\n').append(line);
+            quoted = opensQuote(line, quoted);
+        }
+        return record.toString();
+    }
+
+    /**
+     * 1-based line number on which the last record returned by {@link #next()} starts.
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    // an escaped quote ("") flips the state twice, so counting quotes is enough
+    private static boolean opensQuote(String line, boolean quoted) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quoted = !quoted;
+            }
+        }
+        return quoted;
+    }
+}
@@ -0,0 +1,123 @@
+package ru.itwizardry.userservice.dao;
+
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over a synchronous {@link UserDao}.
+ * <p>
+ * Every call runs on its own virtual thread; at most {@code maxConcurrency} calls reach
+ * the delegate at the same time, the rest park cheaply until a permit is free.
+ * {@code maxConcurrency} should match the JDBC connection pool size.
+ * <p>
+ * The caller's {@link Deadline} travels with the call: it bounds the wait for a permit
+ * and is bound again on the virtual thread that runs the delegate.
+ */
+public class AsyncUserDao implements AutoCloseable {
+
+    private final UserDao target;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    public AsyncUserDao(UserDao target, int maxConcurrency) {
+        this.target = Objects.requireNonNull(target, "target UserDao must not be null");
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public CompletableFuture<Optional<User>> findById(Long id) {
+        return submit(() -> target.findById(id));
+    }
+
+    public CompletableFuture<Optional<User>> findByEmail(String email) {
+        return submit(() -> target.findByEmail(email));
+    }
+
+    public CompletableFuture<User> save(User user) {
+        return submit(() -> target.save(user));
+    }
+
+    public CompletableFuture<Integer> updateById(Long id, String name, String email, Integer age) {
+        return submit(() -> target.updateById(id, name, email, age));
+    }
+
+    public CompletableFuture<Optional<User>> updateReturning(Long id, String name, String email, Integer age) {
+        return submit(() -> target.updateReturning(id, name, email, age));
+    }
+
+    public CompletableFuture<User> upsertByEmail(String name, String email, Integer age) {
+        return submit(() -> target.upsertByEmail(name, email, age));
+    }
+
+    public CompletableFuture<Integer> delete(Long id) {
+        return submit(() -> target.delete(id));
+    }
+
+    public CompletableFuture<Long> streamAll(Consumer<User> consumer) {
+        return submit(() -> target.streamAll(consumer));
+    }
+
+    /**
+     * Runs a whole unit of work on one virtual thread and one DAO permit; see {@link UserDao#inTransaction}.
+     */
+    public <T> CompletableFuture<T> inTransaction(TxMode mode, Function<UserDao, T> work) {
+        return submit(() -> target.inTransaction(mode, work));
+    }
+
+    public CompletableFuture<List<User>> findAllById(Collection<Long> ids) {
+        List<CompletableFuture<Optional<User>>> lookups = ids.stream()
+                .map(this::findById)
+                .toList();
+
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> lookups.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(Optional::stream)
+                        .toList());
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> action) {
+        Deadline deadline = Deadline.current().orElse(null);
+        return CompletableFuture.supplyAsync(() -> {
+            acquirePermit(deadline);
+            try (Deadline.Scope ignored = deadline == null ? null : deadline.bind()) {
+                return action.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    private void acquirePermit(Deadline deadline) {
+        try {
+            if (deadline == null) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS)) {
+                throw new DaoTimeoutException("Deadline expired while waiting for a DAO permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a DAO permit", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.itwizardry.userservice.dao;
+
+/**
+ * Thrown when a DAO call misses its {@link Deadline}: either it was already expired
+ * or the database cancelled the statement because of it.
+ */
+public class DaoTimeoutException extends RuntimeException {
+
+    public DaoTimeoutException(String message) {
+        super(message);
+    }
+
+    public DaoTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.itwizardry.userservice.dao;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a DAO call has to finish.
+ * <p>
+ * A deadline is bound to the current thread for the lifetime of a {@link Scope}:
+ * <pre>
+ * try (Deadline.Scope ignored = Deadline.within(Duration.ofMillis(300))) {
+ *     userService.update(...);
+ * }
+ * </pre>
+ * Nested scopes can only shorten the deadline. {@code TransactionalUserDaoProxy} turns the
+ * remaining time into statement timeouts and cancels statements that outlive it.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static Scope within(Duration timeout) {
+        return after(timeout).bind();
+    }
+
+    /**
+     * Binds this deadline to the current thread, or keeps the already bound one if it is earlier.
+     */
+    public Scope bind() {
+        Deadline previous = CURRENT.get();
+        Deadline effective = previous != null && previous.deadlineNanos - deadlineNanos < 0 ? previous : this;
+        CURRENT.set(effective);
+        return new Scope(previous);
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.itwizardry.userservice.dao;
+
+/**
+ * Thrown by a {@link UserDao} write when the email is already taken by another user
+ * (unique violation, SQLState 23505). The storage-specific error is kept as the cause.
+ * It is an {@link IllegalStateException}, which is what {@code UserService} has always thrown
+ * for a duplicate email.
+ */
+public class DuplicateEmailException extends IllegalStateException {
+
+    public DuplicateEmailException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,388 @@
+package ru.itwizardry.userservice.dao;
+
+import org.hibernate.JDBCException;
+import org.hibernate.exception.ConstraintViolationException;
+import ru.itwizardry.userservice.entity.User;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UserDao} on plain JDBC for latency-critical callers: no session, persistence context or
+ * entity hydration, just a pooled connection, a prepared statement and hand-written row mapping.
+ * <p>
+ * Statements are cached by the PostgreSQL driver per connection (server-side prepared statements,
+ * see {@code DataSourceUtil}), so the SQL is parsed and planned once per pooled connection.
+ * Outside a unit of work every call is a single auto-committed statement. Deadlines work as in
+ * {@code TransactionalUserDaoProxy}: a bounded call runs in a transaction with
+ * {@code SET LOCAL statement_timeout} and a cancelled statement surfaces as {@link DaoTimeoutException}.
+ * SQL errors are rethrown as Hibernate's {@link JDBCException} hierarchy; a duplicate email is a
+ * {@link DuplicateEmailException} wrapping the {@link ConstraintViolationException} (SQLState 23505),
+ * exactly as with {@code TransactionalUserDaoProxy}.
+ * <p>
+ * Writes bypass Hibernate: do not combine this DAO with a second-level cache on the same database.
+ */
+public class JdbcUserDao implements UserDao, UserBatchWriter {
+
+    private static final String COLUMNS = "id, name, email, age, created_at";
+
+    private static final String FIND_BY_ID_SQL = "SELECT " + COLUMNS + " FROM users WHERE id = ?";
+    private static final String FIND_BY_EMAIL_SQL = "SELECT " + COLUMNS + " FROM users"
+            + " WHERE email_fp = hashtextextended(lower(?), 0) AND email = ?";
+    private static final String STREAM_ALL_SQL = "SELECT " + COLUMNS + " FROM users ORDER BY id";
+
+    // nextval() reserves a whole pooled-lo block, so these ids never clash with Hibernate's
+    private static final String INSERT_SQL = """
+            INSERT INTO users (id, name, email, age, created_at)
+            VALUES (nextval('%s'), ?, ?, ?, ?)
+            RETURNING id
+            """.formatted(User.ID_SEQUENCE);
+
+    private static final String UPDATE_SQL = "UPDATE users SET name = ?, email = ?, age = ? WHERE id = ?";
+
+    private static final String UPDATE_RETURNING_SQL = """
+            UPDATE users
+               SET name = ?, email = ?, age = ?
+             WHERE id = ?
+            RETURNING %s
+            """.formatted(COLUMNS);
+
+    private static final String UPSERT_BY_EMAIL_SQL = """
+            INSERT INTO users (id, name, email, age, created_at)
+            VALUES (nextval('%s'), ?, ?, ?, ?)
+            ON CONFLICT (email) DO UPDATE
+               SET name = EXCLUDED.name, age = EXCLUDED.age
+            RETURNING %s
+            """.formatted(User.ID_SEQUENCE, COLUMNS);
+
+    private static final String DELETE_SQL = "DELETE FROM users WHERE id = ?";
+
+    private static final String SQLSTATE_QUERY_CANCELED = "57014";
+    private static final String SQLSTATE_INTEGRITY_VIOLATION_CLASS = "23";
+    private static final String SQLSTATE_UNIQUE_VIOLATION = "23505";
+
+    private final DataSource dataSource;
+    private final Duration defaultTimeout;
+    private final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
+
+    public JdbcUserDao(DataSource dataSource) {
+        this(dataSource, Duration.ZERO);
+    }
+
+    public JdbcUserDao(DataSource dataSource, Duration defaultTimeout) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource must not be null");
+        this.defaultTimeout = Objects.requireNonNull(defaultTimeout, "defaultTimeout must not be null");
+        if (defaultTimeout.isNegative()) {
+            throw new IllegalArgumentException("defaultTimeout must not be negative");
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(FIND_BY_ID_SQL)) {
+                ps.setLong(1, id);
+                return single(ps);
+            }
+        });
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(FIND_BY_EMAIL_SQL)) {
+                ps.setString(1, email);
+                ps.setString(2, email);
+                return single(ps);
+            }
+        });
+    }
+
+    @Override
+    public User save(User user) {
+        Objects.requireNonNull(user, "user must not be null");
+        LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+
+        long id = execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                ps.setString(1, user.getName());
+                ps.setString(2, user.getEmail());
+                ps.setObject(3, user.getAge());
+                ps.setObject(4, createdAt);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return 0;
+        }
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_SQL)) {
+                bindUpdate(ps, id, name, email, age);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_RETURNING_SQL)) {
+                bindUpdate(ps, id, name, email, age);
+                return single(ps);
+            }
+        });
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPSERT_BY_EMAIL_SQL)) {
+                ps.setString(1, name);
+                ps.setString(2, email);
+                ps.setObject(3, age);
+                ps.setObject(4, LocalDateTime.now());
+                return single(ps).orElseThrow();
+            }
+        });
+    }
+
+    @Override
+    public int delete(Long id) {
+        if (id == null) {
+            return 0;
+        }
+        return execute(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(DELETE_SQL)) {
+                ps.setLong(1, id);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Reads through a server-side cursor ({@link UserDaoImpl#STREAM_FETCH_SIZE} rows per round trip),
+     * which the driver only opens inside a transaction. Only an explicitly bound deadline applies.
+     */
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        return executeInTx(TxMode.READ_ONLY, Deadline.current().orElse(null), connection -> {
+            long count = 0;
+            try (PreparedStatement ps = connection.prepareStatement(STREAM_ALL_SQL)) {
+                ps.setFetchSize(UserDaoImpl.STREAM_FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRow(rs));
+                        count++;
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public int[] updateAllById(List<UserUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        return executeInTx(TxMode.READ_WRITE, effectiveDeadline(), connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_SQL)) {
+                for (UserUpdate update : updates) {
+                    bindUpdate(ps, update.id(), update.name(), update.email(), update.age());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Binds one connection and transaction to the calling thread for the duration of {@code work}.
+     * A nested unit of work joins the outer one; a read-write one cannot be nested inside a read-only one.
+     */
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        Objects.requireNonNull(mode, "mode must not be null");
+        Objects.requireNonNull(work, "work must not be null");
+
+        UnitOfWork outer = unitOfWork.get();
+        if (outer != null) {
+            if (outer.mode() == TxMode.READ_ONLY && mode == TxMode.READ_WRITE) {
+                throw new IllegalStateException("Cannot start a read-write unit of work inside a read-only one");
+            }
+            return work.apply(this);
+        }
+
+        return executeInTx(mode, effectiveDeadline(), connection -> {
+            unitOfWork.set(new UnitOfWork(connection, mode));
+            try {
+                return work.apply(this);
+            } finally {
+                unitOfWork.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs a single statement: auto-committed, or in a transaction when a deadline applies.
+     */
+    private <T> T execute(SqlWork<T> work) {
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            return run(current.connection(), work);
+        }
+
+        Deadline deadline = effectiveDeadline();
+        if (deadline != null) {
+            return executeInTx(TxMode.READ_WRITE, deadline, work);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            return work.run(connection);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private <T> T executeInTx(TxMode mode, Deadline deadline, SqlWork<T> work) {
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            return run(current.connection(), work);
+        }
+        long timeoutMs = deadline == null ? 0 : remainingMillisOrThrow(deadline);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            if (mode == TxMode.READ_ONLY) {
+                connection.setReadOnly(true);
+            }
+            try {
+                if (deadline != null) {
+                    try (Statement st = connection.createStatement()) {
+                        st.execute("SET LOCAL statement_timeout = " + timeoutMs);
+                    }
+                }
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException | Error ex) {
+                rollbackQuietly(connection, ex);
+                throw ex;
+            } finally {
+                connection.setAutoCommit(true);
+                if (mode == TxMode.READ_ONLY) {
+                    connection.setReadOnly(false);
+                }
+            }
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private static <T> T run(Connection connection, SqlWork<T> work) {
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private Deadline effectiveDeadline() {
+        Optional<Deadline> bound = Deadline.current();
+        if (bound.isPresent()) {
+            return bound.get();
+        }
+        return defaultTimeout.isZero() ? null : Deadline.after(defaultTimeout);
+    }
+
+    private static long remainingMillisOrThrow(Deadline deadline) {
+        long remainingMs = deadline.remainingMillis();
+        if (remainingMs <= 0) {
+            throw new DaoTimeoutException("Deadline expired before the UserDao call started");
+        }
+        return remainingMs;
+    }
+
+    private static RuntimeException translate(SQLException e) {
+        String sqlState = e.getSQLState();
+        if (SQLSTATE_QUERY_CANCELED.equals(sqlState)) {
+            return new DaoTimeoutException("UserDao call cancelled: deadline exceeded", e);
+        }
+        if (SQLSTATE_UNIQUE_VIOLATION.equals(sqlState)) {
+            return new DuplicateEmailException("Email already exists",
+                    new ConstraintViolationException(e.getMessage(), e, null));
+        }
+        if (sqlState != null && sqlState.startsWith(SQLSTATE_INTEGRITY_VIOLATION_CLASS)) {
+            return new ConstraintViolationException(e.getMessage(), e, null);
+        }
+        return new JDBCException(e.getMessage(), e);
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Long id, String name, String email, Integer age)
+            throws SQLException {
+        ps.setString(1, name);
+        ps.setString(2, email);
+        ps.setObject(3, age);
+        ps.setLong(4, id);
+    }
+
+    private static Optional<User> single(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? Optional.of(mapRow(rs)) : Optional.empty();
+        }
+    }
+
+    private static User mapRow(ResultSet rs) throws SQLException {
+        User user = new User(rs.getString(2), rs.getString(3), rs.getObject(4, Integer.class));
+        user.setId(rs.getLong(1));
+        user.setCreatedAt(rs.getObject(5, LocalDateTime.class));
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private record UnitOfWork(Connection connection, TxMode mode) {
+    }
+}
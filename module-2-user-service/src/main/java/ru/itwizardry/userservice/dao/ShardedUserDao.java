@@ -0,0 +1,377 @@
+package ru.itwizardry.userservice.dao;
+
+import org.hibernate.SessionFactory;
+import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link UserDao} over several PostgreSQL databases (shards), one {@link SessionFactory} each.
+ * <p>
+ * Ids are globally unique and encode their shard in the low {@link #SHARD_BITS} bits:
+ * {@code id = nextval(local sequence) << SHARD_BITS | shard}, so {@code findById}, {@code updateById},
+ * {@code updateReturning} and {@code delete} touch exactly one shard. The shard of an id does not depend
+ * on how many shards there are, so shards (up to {@link #MAX_SHARDS}) can be appended to the list later;
+ * existing users stay where they are and new ones are spread over all shards.
+ * New users are written to the shard chosen by the email hash, together with an entry in that shard's
+ * {@code users_email_directory} (email -> id) in the same statement. The directory keeps emails unique
+ * across all shards and lets {@code findByEmail} find a user whose email changed after it was created.
+ * {@code streamAll} queries all shards in parallel and merges the rows by id.
+ * <p>
+ * The email directory itself is partitioned by email hash over the current shard count: after adding a
+ * shard, every directory entry has to be moved to {@link #shardForEmail} of its email before the new
+ * list is used, or emails created earlier can no longer be found. Shards can never be removed or reordered.
+ * <p>
+ * An email change moves the directory entry between shards in separate transactions. A crash in between
+ * can leave a stale entry; stale entries are ignored on reads and taken over on the next write of that email.
+ * {@code inTransaction} is not overridden: there are no cross-shard transactions, so the calls of a unit
+ * of work each run in their own shard transaction.
+ * Every shard needs {@code db/003-users-sharding.sql}.
+ */
+public class ShardedUserDao implements UserDao {
+
+    public static final String LOCAL_SEQUENCE = "users_shard_local_seq";
+    public static final int SHARD_BITS = 10;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private static final int STREAM_BUFFER = UserDaoImpl.STREAM_FETCH_SIZE;
+
+    private static final String INSERT_SQL = """
+            WITH new_user AS (
+                INSERT INTO users (id, name, email, age, created_at)
+                VALUES (nextval('%s') << %d | :shard, :name, :email, :age, :createdAt)
+                RETURNING *
+            ), directory AS (
+                INSERT INTO users_email_directory (email, user_id)
+                SELECT email, id FROM new_user
+            )
+            SELECT * FROM new_user
+            """.formatted(LOCAL_SEQUENCE, SHARD_BITS);
+
+    private static final String FIND_OWNER_SQL =
+            "SELECT user_id FROM users_email_directory WHERE email = :email";
+    private static final String CLAIM_SQL =
+            "INSERT INTO users_email_directory (email, user_id) VALUES (:email, :id)";
+    private static final String RELEASE_SQL =
+            "DELETE FROM users_email_directory WHERE email = :email AND user_id = :id";
+
+    private static final Object END_OF_SHARD = new Object();
+
+    private final List<Shard> shards;
+
+    public ShardedUserDao(List<SessionFactory> sessionFactories) {
+        this(sessionFactories, Duration.ZERO);
+    }
+
+    public ShardedUserDao(List<SessionFactory> sessionFactories, Duration defaultTimeout) {
+        Objects.requireNonNull(sessionFactories, "sessionFactories must not be null");
+        Objects.requireNonNull(defaultTimeout, "defaultTimeout must not be null");
+        if (sessionFactories.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (sessionFactories.size() > MAX_SHARDS) {
+            throw new IllegalArgumentException("At most " + MAX_SHARDS + " shards are supported");
+        }
+
+        List<Shard> list = new ArrayList<>(sessionFactories.size());
+        for (SessionFactory sf : sessionFactories) {
+            Objects.requireNonNull(sf, "shard SessionFactory must not be null");
+            list.add(new Shard(list.size(), new TransactionalUserDaoProxy(sf, defaultTimeout)));
+        }
+        this.shards = List.copyOf(list);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Shard index encoded in {@code id}; may be {@code >= shardCount()} for an id no shard ever issued.
+     */
+    public int shardForId(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+
+    public int shardForEmail(String email) {
+        // spread the bits of String.hashCode, whose low bits are weak for similar strings
+        int h = email.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), shards.size());
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return byId(id).flatMap(shard -> shard.dao().findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return ownerOf(email)
+                .flatMap(this::findById)
+                .filter(user -> email.equals(user.getEmail()));
+    }
+
+    @Override
+    public User save(User user) {
+        Objects.requireNonNull(user, "user must not be null");
+        Shard shard = byEmail(user.getEmail());
+
+        User saved = retryingOverStaleEntry(user.getEmail(), () -> shard.dao().withTransaction(session ->
+                session.createNativeQuery(INSERT_SQL, User.class)
+                        .setParameter("shard", shard.index())
+                        .setParameter("name", user.getName())
+                        .setParameter("email", user.getEmail())
+                        .setParameter("age", user.getAge())
+                        .setParameter("createdAt", LocalDateTime.now())
+                        .getSingleResult()));
+
+        user.setId(saved.getId());
+        user.setCreatedAt(saved.getCreatedAt());
+        return user;
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        return updateReturning(id, name, email, age).isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Shard> owner = byId(id);
+        if (owner.isEmpty()) {
+            return Optional.empty();
+        }
+        Shard shard = owner.get();
+        Optional<User> current = shard.dao().findById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String oldEmail = current.get().getEmail();
+        if (Objects.equals(oldEmail, email)) {
+            return shard.dao().updateReturning(id, name, email, age);
+        }
+
+        claim(email, id);
+        Optional<User> updated;
+        try {
+            updated = shard.dao().updateReturning(id, name, email, age);
+        } catch (RuntimeException ex) {
+            release(email, id);
+            throw ex;
+        }
+        if (updated.isEmpty()) {
+            release(email, id);
+            return updated;
+        }
+        release(oldEmail, id);
+        return updated;
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        Optional<User> existing = findByEmail(email);
+        if (existing.isPresent()) {
+            Optional<User> updated = updateReturning(existing.get().getId(), name, email, age);
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+        }
+        return save(new User(name, email, age));
+    }
+
+    @Override
+    public int delete(Long id) {
+        if (id == null) {
+            return 0;
+        }
+        Optional<Shard> owner = byId(id);
+        if (owner.isEmpty()) {
+            return 0;
+        }
+        Shard shard = owner.get();
+        Optional<User> current = shard.dao().findById(id);
+        int rows = shard.dao().delete(id);
+        if (rows > 0 && current.isPresent()) {
+            release(current.get().getEmail(), id);
+        }
+        return rows;
+    }
+
+    /**
+     * Streams all shards in parallel, each into its own bounded buffer, and hands the rows to
+     * {@code consumer} on the calling thread in global id order.
+     */
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Optional<Deadline> deadline = Deadline.current();
+
+        List<BlockingQueue<Object>> buffers = new ArrayList<>(shards.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Shard shard : shards) {
+                BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(STREAM_BUFFER);
+                buffers.add(buffer);
+                executor.execute(() -> produce(shard, buffer, deadline));
+            }
+
+            try {
+                return merge(buffers, consumer);
+            } catch (RuntimeException | Error ex) {
+                executor.shutdownNow();
+                throw ex;
+            }
+        }
+    }
+
+    private void produce(Shard shard, BlockingQueue<Object> buffer, Optional<Deadline> deadline) {
+        Object last = END_OF_SHARD;
+        try (Deadline.Scope ignored = deadline.map(Deadline::bind).orElse(null)) {
+            shard.dao().streamAll(user -> {
+                try {
+                    buffer.put(user);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while streaming shard " + shard.index(), e);
+                }
+            });
+        } catch (RuntimeException ex) {
+            last = ex;
+        }
+        if (!Thread.currentThread().isInterrupted()) {
+            try {
+                buffer.put(last);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long merge(List<BlockingQueue<Object>> buffers, Consumer<User> consumer) {
+        record Head(User user, int shard) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head h) -> h.user().getId()));
+        for (int i = 0; i < buffers.size(); i++) {
+            User next = take(buffers.get(i));
+            if (next != null) heads.add(new Head(next, i));
+        }
+
+        long count = 0;
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            consumer.accept(head.user());
+            count++;
+            User next = take(buffers.get(head.shard()));
+            if (next != null) heads.add(new Head(next, head.shard()));
+        }
+        return count;
+    }
+
+    private static User take(BlockingQueue<Object> buffer) {
+        Object item;
+        try {
+            item = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging shard streams", e);
+        }
+        if (item == END_OF_SHARD) return null;
+        if (item instanceof RuntimeException ex) throw ex;
+        return (User) item;
+    }
+
+    private Optional<Long> ownerOf(String email) {
+        return byEmail(email).dao().withTransaction(session ->
+                session.createNativeQuery(FIND_OWNER_SQL, Long.class)
+                        .setParameter("email", email)
+                        .uniqueResultOptional());
+    }
+
+    private void claim(String email, long id) {
+        retryingOverStaleEntry(email, () -> byEmail(email).dao().withTransaction(session ->
+                session.createNativeMutationQuery(CLAIM_SQL)
+                        .setParameter("email", email)
+                        .setParameter("id", id)
+                        .executeUpdate()));
+    }
+
+    private void release(String email, long id) {
+        byEmail(email).dao().withTransaction(session ->
+                session.createNativeMutationQuery(RELEASE_SQL)
+                        .setParameter("email", email)
+                        .setParameter("id", id)
+                        .executeUpdate());
+    }
+
+    /**
+     * Runs a write that adds a directory entry; if it fails on an existing entry that no longer
+     * points at a user with this email, drops that entry and tries once more.
+     */
+    private <T> T retryingOverStaleEntry(String email, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (RuntimeException ex) {
+            if (!isUniqueViolation(ex) || !releaseIfStale(email)) {
+                throw ex;
+            }
+            return write.get();
+        }
+    }
+
+    private boolean releaseIfStale(String email) {
+        Optional<Long> owner = ownerOf(email);
+        if (owner.isEmpty()) {
+            return true;
+        }
+        boolean live = findById(owner.get()).map(u -> email.equals(u.getEmail())).orElse(false);
+        if (live) {
+            return false;
+        }
+        release(email, owner.get());
+        return true;
+    }
+
+    private static boolean isUniqueViolation(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof org.hibernate.exception.ConstraintViolationException h) {
+                return "23505".equals(h.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    private Optional<Shard> byId(long id) {
+        int index = shardForId(id);
+        return index < shards.size() ? Optional.of(shards.get(index)) : Optional.empty();
+    }
+
+    private Shard byEmail(String email) {
+        Objects.requireNonNull(email, "email must not be null");
+        return shards.get(shardForEmail(email));
+    }
+
+    private record Shard(int index, TransactionalUserDaoProxy dao) {
+    }
+}
@@ -0,0 +1,10 @@
+package ru.itwizardry.userservice.dao;
+
+/**
+ * Transaction mode of a {@link UserDao#inTransaction(TxMode, java.util.function.Function) unit of work}.
+ */
+public enum TxMode {
+    READ_WRITE,
+    /** Hibernate skips dirty checking and PostgreSQL rejects any write ({@code SET TRANSACTION READ ONLY}). */
+    READ_ONLY
+}
@@ -0,0 +1,7 @@
+package ru.itwizardry.userservice.dao;
+
+import java.util.List;
+
+public interface UserBatchWriter {
+    int[] updateAllById(List<UserUpdate> updates);
+}
@@ -2,7 +2,10 @@ package ru.itwizardry.userservice.dao;
 
 import ru.itwizardry.userservice.entity.User;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public interface UserDao {
     Optional<User> findById(Long id);
@@ -13,5 +16,27 @@ public interface UserDao {
 
     int updateById(Long id, String name, String email, Integer age);
 
+    Optional<User> updateReturning(Long id, String name, String email, Integer age);
+
+    User upsertByEmail(String name, String email, Integer age);
+
     int delete(Long id);
+
+    long streamAll(Consumer<User> consumer);
+
+    default <T> T inTransaction(Function<UserDao, T> work) {
+        return inTransaction(TxMode.READ_WRITE, work);
+    }
+
+    /**
+     * Runs {@code work} as one unit of work. Database-backed implementations bind a single session and
+     * transaction to every call made on the {@link UserDao} handed to {@code work}, so repeated reads are
+     * served from the first-level cache and the whole operation commits or rolls back at once.
+     * The default simply runs {@code work} against this DAO.
+     */
+    default <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        Objects.requireNonNull(mode, "mode must not be null");
+        Objects.requireNonNull(work, "work must not be null");
+        return work.apply(this);
+    }
 }
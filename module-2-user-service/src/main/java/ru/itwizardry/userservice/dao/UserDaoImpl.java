@@ -1,11 +1,42 @@
 package ru.itwizardry.userservice.dao;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
 import ru.itwizardry.userservice.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class UserDaoImpl implements UserDao {
+    public static final int STREAM_FETCH_SIZE = 1_000;
+
+    // the fingerprint index finds the row, the email comparison rules out hash collisions
+    private static final String FIND_BY_EMAIL_SQL = """
+            SELECT *
+              FROM users
+             WHERE email_fp = hashtextextended(lower(:email), 0)
+               AND email = :email
+            """;
+
+    private static final String UPDATE_RETURNING_SQL = """
+            UPDATE users
+               SET name = :name, email = :email, age = :age
+             WHERE id = :id
+            RETURNING *
+            """;
+
+    // nextval() reserves a whole pooled-lo block, so ids of upserted rows never clash with Hibernate's
+    private static final String UPSERT_BY_EMAIL_SQL = """
+            INSERT INTO users (id, name, email, age, created_at)
+            VALUES (nextval('%s'), :name, :email, :age, :createdAt)
+            ON CONFLICT (email) DO UPDATE
+               SET name = EXCLUDED.name, age = EXCLUDED.age
+            RETURNING *
+            """.formatted(User.ID_SEQUENCE);
+
     private final Session session;
 
     public UserDaoImpl(Session session) {
@@ -18,15 +49,30 @@ public class UserDaoImpl implements UserDao {
         return Optional.ofNullable(session.find(User.class, id));
     }
 
+    /**
+     * Resolves the email through the natural-id cache (the session's, then the second-level one)
+     * and loads the user by id, normally from the entity cache. Only on a miss does it run the
+     * fingerprint query; the loaded row puts its natural id back into the cache.
+     * <p>
+     * DML writes evict only the entity, so a cached email may point to a user whose email has
+     * changed since: the loaded user's email is compared and the query decides in that case.
+     */
     @Override
     public Optional<User> findByEmail(String email) {
-        return session.createQuery(
-                        "select u from User u where u.email = :email",
-                        User.class
-                )
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        Object cachedId = cachedIdByEmail(email);
+        if (cachedId != null) {
+            User cached = session.find(User.class, cachedId);
+            if (cached != null && email.equals(cached.getEmail())) {
+                return Optional.of(cached);
+            }
+        }
+        return session.createNativeQuery(FIND_BY_EMAIL_SQL, User.class)
                 .setParameter("email", email)
-                .getResultStream()
-                .findFirst();
+                .uniqueResultOptional();
     }
 
     @Override
@@ -49,6 +95,32 @@ public class UserDaoImpl implements UserDao {
                 .executeUpdate();
     }
 
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        // an instance already managed by this session would be returned instead of the RETURNING row
+        session.detach(session.getReference(User.class, id));
+
+        return session.createNativeQuery(UPDATE_RETURNING_SQL, User.class)
+                .setParameter("name", name)
+                .setParameter("email", email)
+                .setParameter("age", age)
+                .setParameter("id", id)
+                .uniqueResultOptional();
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        return session.createNativeQuery(UPSERT_BY_EMAIL_SQL, User.class)
+                .setParameter("name", name)
+                .setParameter("email", email)
+                .setParameter("age", age)
+                .setParameter("createdAt", LocalDateTime.now())
+                .getSingleResult();
+    }
+
     @Override
     public int delete(Long id) {
         return session.createMutationQuery(
@@ -57,4 +129,34 @@ public class UserDaoImpl implements UserDao {
                 .setParameter("id", id)
                 .executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        long count = 0;
+        try (ScrollableResults<User> rows = session.createQuery(
+                        "select u from User u order by u.id",
+                        User.class
+                )
+                .setReadOnly(true)
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            while (rows.next()) {
+                User user = rows.get();
+                consumer.accept(user);
+                session.detach(user);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Object cachedIdByEmail(String email) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        return implementor.getPersistenceContextInternal()
+                .getNaturalIdResolutions()
+                .findCachedIdByNaturalId(email, implementor.getFactory()
+                        .getMappingMetamodel()
+                        .getEntityDescriptor(User.class));
+    }
+}
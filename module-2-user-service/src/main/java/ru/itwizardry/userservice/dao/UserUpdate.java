@@ -0,0 +1,4 @@
+package ru.itwizardry.userservice.dao;
+
+public record UserUpdate(Long id, String name, String email, Integer age) {
+}
@@ -0,0 +1,526 @@
+package ru.itwizardry.userservice.dao.memory;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.algorithms.map.MyHashMap;
+import ru.itwizardry.algorithms.map.MyMap;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * {@link UserDao} kept entirely in memory: a primary id index and a unique email index on module-1's
+ * {@link MyHashMap}, guarded by one read-write lock (concurrent reads, exclusive writes).
+ * <p>
+ * With {@link Settings#directory()} set, every mutation is appended to a {@link WriteAheadLog} before
+ * the call returns. With {@code syncInterval = 0} the call also waits for the fsync, batched with
+ * concurrent writers (group commit); the indexes are updated before that wait so writers do not hold
+ * the lock through it, and if the fsync fails every change not yet on disk is rolled back before the
+ * caller gets the error. Otherwise the log is fsynced every {@code syncInterval} and up to that much
+ * acknowledged work can be lost on power failure. A snapshot every {@code snapshotInterval}
+ * (or on {@link #snapshot()}) writes all rows to {@code snapshot.bin} and drops the log segments it
+ * covers; startup loads the snapshot and replays the remaining log. If the log cannot be written,
+ * the DAO turns read-only.
+ * <p>
+ * Duplicate emails fail with the same {@link DuplicateEmailException} (wrapping a
+ * {@link ConstraintViolationException} with SQLState 23505) as the PostgreSQL-backed stack.
+ * There are no transactions: {@code inTransaction} uses the default.
+ */
+public class InMemoryUserDao implements UserDao, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryUserDao.class);
+
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final int SNAPSHOT_MAGIC = 0x55534E50;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Settings settings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private final MyMap<Long, StoredUser> byId = new MyHashMap<>();
+    private final MyMap<String, Long> idByEmail = new MyHashMap<>();
+    private long nextId = 1;
+    // previous rows of changes whose fsync is still pending, oldest first; guarded by the write lock
+    private final ArrayDeque<Undo> undo = new ArrayDeque<>();
+
+    private final WriteAheadLog wal;
+    private final ScheduledExecutorService scheduler;
+    private volatile IOException walFailure;
+
+    /**
+     * Volatile store without any files.
+     */
+    public InMemoryUserDao() {
+        this.settings = null;
+        this.wal = null;
+        this.scheduler = null;
+    }
+
+    /**
+     * Durable store in {@code settings.directory()}, recovered from its snapshot and log.
+     */
+    public InMemoryUserDao(Settings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings must not be null");
+        try {
+            Files.createDirectories(settings.directory());
+            long firstSegment = loadSnapshot();
+            WriteAheadLog.replay(settings.directory(), firstSegment, this::redo);
+            List<Long> segments = WriteAheadLog.segments(settings.directory());
+            long current = segments.isEmpty() ? firstSegment : Math.max(firstSegment, segments.getLast());
+            this.wal = new WriteAheadLog(settings.directory(), current);
+            wal.deleteSegmentsBefore(firstSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user store in " + settings.directory(), e);
+        }
+        log.info("In-memory user store recovered from {}: {} users", settings.directory(), byId.size());
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "in-memory-user-dao");
+            t.setDaemon(true);
+            return t;
+        });
+        if (!settings.syncInterval().isZero()) {
+            long ms = settings.syncInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::syncQuietly, ms, ms, TimeUnit.MILLISECONDS);
+        }
+        if (!settings.snapshotInterval().isZero()) {
+            long ms = settings.snapshotInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, ms, ms, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null) return Optional.empty();
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(id)).map(StoredUser::toUser);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        lock.readLock().lock();
+        try {
+            Long id = idByEmail.get(email);
+            return id == null ? Optional.empty() : Optional.of(byId.get(id).toUser());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        Objects.requireNonNull(user, "user must not be null");
+        Objects.requireNonNull(user.getEmail(), "email must not be null");
+        LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : LocalDateTime.now();
+
+        StoredUser stored;
+        long ticket;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            if (idByEmail.get(user.getEmail()) != null) {
+                throw duplicateEmail(user.getEmail());
+            }
+            stored = new StoredUser(nextId++, user.getName(), user.getEmail(), user.getAge(), createdAt);
+            ticket = write(WriteAheadLog.PUT, stored);
+            remember(ticket, stored.id(), null);
+            index(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(ticket);
+
+        user.setId(stored.id());
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        return updateReturning(id, name, email, age).isPresent() ? 1 : 0;
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        if (id == null) return Optional.empty();
+        Objects.requireNonNull(email, "email must not be null");
+
+        StoredUser updated;
+        long ticket;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            StoredUser current = byId.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            Long owner = idByEmail.get(email);
+            if (owner != null && owner != id.longValue()) {
+                throw duplicateEmail(email);
+            }
+            updated = current.with(name, email, age);
+            ticket = write(WriteAheadLog.PUT, updated);
+            remember(ticket, id, current);
+            index(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(ticket);
+        return Optional.of(updated.toUser());
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        Objects.requireNonNull(email, "email must not be null");
+
+        StoredUser stored;
+        long ticket;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            Long id = idByEmail.get(email);
+            stored = id == null
+                    ? new StoredUser(nextId++, name, email, age, LocalDateTime.now())
+                    : byId.get(id).with(name, email, age);
+            ticket = write(WriteAheadLog.PUT, stored);
+            remember(ticket, stored.id(), id == null ? null : byId.get(id));
+            index(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(ticket);
+        return stored.toUser();
+    }
+
+    @Override
+    public int delete(Long id) {
+        if (id == null) return 0;
+
+        long ticket;
+        lock.writeLock().lock();
+        try {
+            ensureWritable();
+            StoredUser current = byId.get(id);
+            if (current == null) {
+                return 0;
+            }
+            ticket = write(WriteAheadLog.DELETE, current);
+            remember(ticket, id, current);
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(ticket);
+        return 1;
+    }
+
+    /**
+     * Streams a point-in-time copy in id order; the lock is released before {@code consumer} runs.
+     */
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        List<StoredUser> rows = rows();
+        rows.sort(Comparator.comparingLong(StoredUser::id));
+        for (StoredUser row : rows) {
+            consumer.accept(row.toUser());
+        }
+        return rows.size();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all rows to {@code snapshot.bin} (atomically replaced) and deletes the log segments it covers.
+     */
+    public void snapshot() {
+        requireDurable();
+        snapshotLock.lock();
+        try {
+            List<StoredUser> rows;
+            long firstSegment;
+            long nextIdAtSnapshot;
+            lock.writeLock().lock();
+            try {
+                ensureWritable();
+                rows = new ArrayList<>(byId.size());
+                byId.forEach((id, row) -> rows.add(row));
+                nextIdAtSnapshot = nextId;
+                try {
+                    firstSegment = wal.rotate();
+                } catch (IOException e) {
+                    walFailure = e;
+                    throw e;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            writeSnapshot(rows, nextIdAtSnapshot, firstSegment);
+            wal.deleteSegmentsBefore(firstSegment);
+            log.info("In-memory user store snapshot: {} users, log continues in segment {}", rows.size(), firstSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Snapshot failed", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (wal == null) return;
+        scheduler.shutdownNow();
+        try {
+            wal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close write-ahead log", e);
+        }
+    }
+
+    private long write(byte op, StoredUser user) {
+        if (wal == null) return 0;
+        try {
+            return wal.append(op, user);
+        } catch (IOException e) {
+            walFailure = e;
+            throw new UncheckedIOException("Write-ahead log append failed, store is read-only now", e);
+        }
+    }
+
+    private void awaitDurable(long ticket) {
+        if (wal == null || !settings.syncInterval().isZero()) return;
+        try {
+            wal.sync(ticket);
+        } catch (IOException e) {
+            walFailure = e;
+            rollbackUndurable();
+            throw new UncheckedIOException("Write-ahead log fsync failed, store is read-only now", e);
+        }
+    }
+
+    /**
+     * Records the row {@code id} had before the change logged as {@code ticket} ({@code null} if
+     * none), so that {@link #rollbackUndurable()} can restore it. Called under the write lock.
+     */
+    private void remember(long ticket, long id, StoredUser previous) {
+        if (wal == null || !settings.syncInterval().isZero()) return;
+        long durable = wal.durable();
+        while (!undo.isEmpty() && undo.peekFirst().ticket() <= durable) {
+            undo.pollFirst();
+        }
+        undo.addLast(new Undo(ticket, id, previous));
+    }
+
+    /**
+     * Undoes, newest first, every change whose log record is not known to be on disk. Their records
+     * may still have reached the file, in which case a restart replays them.
+     */
+    private void rollbackUndurable() {
+        lock.writeLock().lock();
+        try {
+            long durable = wal.durable();
+            while (!undo.isEmpty() && undo.peekLast().ticket() > durable) {
+                Undo change = undo.pollLast();
+                if (change.previous() == null) {
+                    unindex(change.id());
+                } else {
+                    index(change.previous());
+                }
+            }
+            undo.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (walFailure != null) {
+            throw new IllegalStateException("User store is read-only after a write-ahead log failure", walFailure);
+        }
+    }
+
+    private void requireDurable() {
+        if (wal == null) {
+            throw new IllegalStateException("Volatile in-memory store has no snapshots");
+        }
+    }
+
+    private void index(StoredUser user) {
+        StoredUser previous = byId.put(user.id(), user);
+        if (previous != null && !previous.email().equals(user.email())) {
+            idByEmail.remove(previous.email());
+        }
+        idByEmail.put(user.email(), user.id());
+    }
+
+    private void unindex(long id) {
+        StoredUser removed = byId.remove(id);
+        if (removed != null) {
+            idByEmail.remove(removed.email());
+        }
+    }
+
+    private void redo(WriteAheadLog.Entry entry) {
+        if (entry.op() == WriteAheadLog.PUT) {
+            index(entry.user());
+        } else {
+            unindex(entry.id());
+        }
+        // deleted ids are never handed out again
+        nextId = Math.max(nextId, entry.id() + 1);
+    }
+
+    private List<StoredUser> rows() {
+        lock.readLock().lock();
+        try {
+            List<StoredUser> rows = new ArrayList<>(byId.size());
+            byId.forEach((id, row) -> rows.add(row));
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeSnapshot(List<StoredUser> rows, long nextIdAtSnapshot, long firstSegment) throws IOException {
+        Path target = settings.directory().resolve(SNAPSHOT);
+        Path tmp = settings.directory().resolve(SNAPSHOT + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)), crc))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(firstSegment);
+            out.writeLong(nextIdAtSnapshot);
+            out.writeInt(rows.size());
+            for (StoredUser row : rows) {
+                row.writeTo(out);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads {@code snapshot.bin} if present and returns the first log segment not covered by it.
+     */
+    private long loadSnapshot() throws IOException {
+        Path file = settings.directory().resolve(SNAPSHOT);
+        if (!Files.exists(file)) {
+            return 1;
+        }
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a user store snapshot: " + file);
+            }
+            long firstSegment = in.readLong();
+            nextId = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                index(StoredUser.readFrom(in));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return firstSegment;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            wal.syncAll();
+        } catch (IOException e) {
+            walFailure = e;
+            log.error("Write-ahead log fsync failed, store is read-only now", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Periodic snapshot failed", e);
+        }
+    }
+
+    private record Undo(long ticket, long id, StoredUser previous) {
+    }
+
+    private static DuplicateEmailException duplicateEmail(String email) {
+        return new DuplicateEmailException("Email already exists", new ConstraintViolationException(
+                "Email already exists",
+                new SQLException("duplicate key value violates unique constraint", "23505"), "users_email_key"));
+    }
+
+    /**
+     * @param syncInterval     {@link Duration#ZERO}: fsync before each write returns (group commit);
+     *                         otherwise fsync periodically
+     * @param snapshotInterval {@link Duration#ZERO} disables periodic snapshots
+     */
+    public record Settings(Path directory, Duration syncInterval, Duration snapshotInterval) {
+
+        public Settings {
+            Objects.requireNonNull(directory, "directory must not be null");
+            Objects.requireNonNull(syncInterval, "syncInterval must not be null");
+            Objects.requireNonNull(snapshotInterval, "snapshotInterval must not be null");
+            if (syncInterval.isNegative() || snapshotInterval.isNegative()) {
+                throw new IllegalArgumentException("intervals must not be negative");
+            }
+        }
+
+        public static Settings durable(Path directory) {
+            return new Settings(directory, Duration.ZERO, Duration.ofMinutes(5));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.itwizardry.userservice.dao.memory;
+
+import ru.itwizardry.userservice.entity.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Immutable row of {@link InMemoryUserDao}; callers only ever see {@link User} copies of it.
+ */
+record StoredUser(long id, String name, String email, Integer age, LocalDateTime createdAt) {
+
+    User toUser() {
+        User user = new User(name, email, age);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+
+    StoredUser with(String name, String email, Integer age) {
+        return new StoredUser(id, name, email, age, createdAt);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(id);
+        writeNullable(out, name);
+        out.writeUTF(email);
+        out.writeInt(age == null ? Integer.MIN_VALUE : age);
+        out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(createdAt.getNano());
+    }
+
+    static StoredUser readFrom(DataInput in) throws IOException {
+        long id = in.readLong();
+        String name = readNullable(in);
+        String email = in.readUTF();
+        int age = in.readInt();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new StoredUser(id, name, email, age == Integer.MIN_VALUE ? null : age, createdAt);
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
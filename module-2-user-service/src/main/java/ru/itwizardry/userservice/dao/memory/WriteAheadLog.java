@@ -0,0 +1,256 @@
+package ru.itwizardry.userservice.dao.memory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link InMemoryUserDao} mutations, split into numbered segment files
+ * ({@code wal-0000000001.log}, ...). A new segment is started for every snapshot.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32][payload]}. {@link #sync(long)} is a group
+ * commit: one writer fsyncs everything appended so far, and writers whose records were covered by
+ * that fsync return without forcing the file again.
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    // lock order: syncMonitor, then this
+    private final Object syncMonitor = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    private long appended;
+    // written under syncMonitor, read without it so that callers never wait for an fsync in progress
+    private volatile long durable;
+    private IOException syncFailure;
+
+    WriteAheadLog(Path directory, long segment) throws IOException {
+        this.directory = directory;
+        this.segment = segment;
+        this.channel = open(directory, segment);
+    }
+
+    /**
+     * Writes one record and returns its sequence number for {@link #sync(long)}.
+     */
+    synchronized long append(byte op, StoredUser user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            if (op == PUT) {
+                user.writeTo(out);
+            } else {
+                out.writeLong(user.id());
+            }
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        return ++appended;
+    }
+
+    void sync(long sequence) throws IOException {
+        synchronized (syncMonitor) {
+            if (durable >= sequence) {
+                return;
+            }
+            // after a failed fsync the page cache may have dropped the dirty pages, a later one proves nothing
+            if (syncFailure != null) {
+                throw new IOException("Write-ahead log fsync failed earlier", syncFailure);
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = appended;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                syncFailure = e;
+                throw e;
+            }
+            durable = target;
+        }
+    }
+
+    /**
+     * Sequence number of the last record known to be on disk.
+     */
+    long durable() {
+        return durable;
+    }
+
+    void syncAll() throws IOException {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        sync(target);
+    }
+
+    /**
+     * Closes the current segment durably and continues in the next one; returns the new segment number.
+     */
+    long rotate() throws IOException {
+        synchronized (syncMonitor) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                segment++;
+                channel = open(directory, segment);
+                durable = appended;
+                return segment;
+            }
+        }
+    }
+
+    void deleteSegmentsBefore(long first) throws IOException {
+        for (long s : segments(directory)) {
+            if (s < first) {
+                Files.deleteIfExists(segmentPath(directory, s));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncMonitor) {
+            synchronized (this) {
+                try {
+                    channel.force(false);
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    static List<Long> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Replays segments {@code >= first} in order. A torn or corrupt record at the end of the last
+     * segment (crash during append) is cut off; corruption anywhere else fails the replay.
+     */
+    static void replay(Path directory, long first, Consumer<Entry> apply) throws IOException {
+        List<Long> toReplay = new ArrayList<>();
+        for (long s : segments(directory)) {
+            if (s >= first) toReplay.add(s);
+        }
+        for (int i = 0; i < toReplay.size(); i++) {
+            replaySegment(segmentPath(directory, toReplay.get(i)), i == toReplay.size() - 1, apply);
+        }
+    }
+
+    private static void replaySegment(Path file, boolean last, Consumer<Entry> apply) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position < size) {
+                int length = -1;
+                int expectedCrc = 0;
+                if (size - position >= HEADER_BYTES) {
+                    header.clear();
+                    readFully(ch, header, position);
+                    length = header.getInt();
+                    expectedCrc = header.getInt();
+                }
+                byte[] payload = null;
+                if (length >= 0 && size - position - HEADER_BYTES >= length) {
+                    ByteBuffer body = ByteBuffer.allocate(length);
+                    readFully(ch, body, position + HEADER_BYTES);
+                    payload = body.array();
+                }
+                if (payload == null || !crcMatches(payload, expectedCrc)) {
+                    if (!last) {
+                        throw new IOException("Corrupt WAL record in " + file + " at offset " + position);
+                    }
+                    ch.truncate(position);
+                    ch.force(true);
+                    return;
+                }
+                apply.accept(decode(payload));
+                position += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (ch.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of WAL segment");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static boolean crcMatches(byte[] payload, int expected) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == expected;
+    }
+
+    private static Entry decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte op = in.readByte();
+            if (op == PUT) {
+                StoredUser user = StoredUser.readFrom(in);
+                return new Entry(op, user.id(), user);
+            }
+            if (op == DELETE) {
+                return new Entry(op, in.readLong(), null);
+            }
+            throw new IOException("Unknown WAL operation " + op);
+        }
+    }
+
+    private static FileChannel open(Path directory, long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(PREFIX + String.format("%010d", segment) + SUFFIX);
+    }
+
+    record Entry(byte op, Long id, StoredUser user) {
+    }
+}
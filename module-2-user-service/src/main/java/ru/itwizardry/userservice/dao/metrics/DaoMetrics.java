@@ -0,0 +1,64 @@
+package ru.itwizardry.userservice.dao.metrics;
+
+import ru.itwizardry.userservice.dao.proxy.DaoOperation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class DaoMetrics {
+
+    private static final String DOMAIN = "ru.itwizardry.userservice";
+
+    private final Map<DaoOperation, OperationMetrics> byOperation = new EnumMap<>(DaoOperation.class);
+
+    public DaoMetrics() {
+        for (DaoOperation operation : DaoOperation.values()) {
+            byOperation.put(operation, new OperationMetrics("UserDao." + operation.methodName()));
+        }
+    }
+
+    public OperationMetrics forOperation(DaoOperation operation) {
+        return byOperation.get(operation);
+    }
+
+    public Collection<OperationMetrics> all() {
+        return byOperation.values();
+    }
+
+    public void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Map.Entry<DaoOperation, OperationMetrics> e : byOperation.entrySet()) {
+                ObjectName name = objectName(e.getKey());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(e.getValue(), name);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register DAO metrics MBeans", e);
+        }
+    }
+
+    public void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (DaoOperation operation : byOperation.keySet()) {
+                ObjectName name = objectName(operation);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister DAO metrics MBeans", e);
+        }
+    }
+
+    private static ObjectName objectName(DaoOperation operation) throws JMException {
+        return new ObjectName(DOMAIN + ":type=DaoMetrics,operation=" + operation.methodName());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.itwizardry.userservice.dao.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class DaoMetricsReporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DaoMetricsReporter.class);
+
+    private final DaoMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    public DaoMetricsReporter(DaoMetrics metrics, Duration period) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+        Objects.requireNonNull(period, "period must not be null");
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dao-metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodMs = period.toMillis();
+        scheduler.scheduleAtFixedRate(this::report, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void report() {
+        for (OperationMetrics operation : metrics.all()) {
+            LatencySnapshot snapshot = operation.intervalSnapshot();
+            if (snapshot.count() > 0) {
+                log.info("{}", snapshot);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
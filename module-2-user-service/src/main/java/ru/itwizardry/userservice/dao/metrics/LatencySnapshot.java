@@ -0,0 +1,33 @@
+package ru.itwizardry.userservice.dao.metrics;
+
+import org.HdrHistogram.Histogram;
+
+public record LatencySnapshot(
+        String operation,
+        long count,
+        long errors,
+        long p50Nanos,
+        long p99Nanos,
+        long p999Nanos,
+        long maxNanos
+) {
+
+    static LatencySnapshot of(String operation, Histogram histogram, long errors) {
+        return new LatencySnapshot(
+                operation,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(99.0),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue()
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d errors=%d p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                operation, count, errors,
+                p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+    }
+}
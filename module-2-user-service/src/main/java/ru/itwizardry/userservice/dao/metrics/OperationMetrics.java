@@ -0,0 +1,114 @@
+package ru.itwizardry.userservice.dao.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error counter of a single DAO operation.
+ * <p>
+ * Writers record into a lock-free {@link Recorder}. Only {@link #intervalSnapshot()} (the reporter)
+ * swaps out the interval histogram and adds it to the cumulative one; totals and the JMX getters
+ * read the cumulative state as of the last interval, so a JMX scrape never takes samples away
+ * from the reporter.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String operation;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    private long totalErrors;
+    private volatile LatencySnapshot totalSnapshot;
+
+    OperationMetrics(String operation) {
+        this.operation = operation;
+        this.totalSnapshot = LatencySnapshot.of(operation, total, 0);
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    public void recordSuccess(long nanos) {
+        recorder.recordValue(clamp(nanos));
+    }
+
+    public void recordError(long nanos) {
+        recorder.recordValue(clamp(nanos));
+        errors.increment();
+    }
+
+    /**
+     * Returns latencies recorded since the previous call and adds them to the totals.
+     */
+    public synchronized LatencySnapshot intervalSnapshot() {
+        interval = interval == null
+                ? recorder.getIntervalHistogram()
+                : recorder.getIntervalHistogram(interval);
+        long intervalErrors = errors.sumThenReset();
+
+        total.add(interval);
+        totalErrors += intervalErrors;
+        totalSnapshot = LatencySnapshot.of(operation, total, totalErrors);
+        return LatencySnapshot.of(operation, interval, intervalErrors);
+    }
+
+    /**
+     * Cumulative latencies up to the last {@link #intervalSnapshot()}.
+     */
+    public LatencySnapshot totalSnapshot() {
+        return totalSnapshot;
+    }
+
+    @Override
+    public long getCount() {
+        return totalSnapshot.count();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return totalSnapshot.errors();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return totalSnapshot.p50Nanos();
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return totalSnapshot.p99Nanos();
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return totalSnapshot.p999Nanos();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return totalSnapshot.maxNanos();
+    }
+
+    /**
+     * Clears the totals; samples not yet taken by {@link #intervalSnapshot()} stay with the reporter.
+     */
+    @Override
+    public synchronized void reset() {
+        total.reset();
+        totalErrors = 0;
+        totalSnapshot = LatencySnapshot.of(operation, total, 0);
+    }
+
+    private static long clamp(long nanos) {
+        return Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+}
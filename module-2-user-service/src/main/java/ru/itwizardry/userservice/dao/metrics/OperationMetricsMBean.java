@@ -0,0 +1,17 @@
+package ru.itwizardry.userservice.dao.metrics;
+
+public interface OperationMetricsMBean {
+    long getCount();
+
+    long getErrorCount();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    void reset();
+}
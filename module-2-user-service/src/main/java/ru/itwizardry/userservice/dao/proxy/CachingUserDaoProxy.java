@@ -0,0 +1,417 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of another {@link UserDao}.
+ * <p>
+ * Users are cached by id (LRU, bounded by {@code maxSize}, expiring after {@code ttl});
+ * emails are resolved through a secondary email→id mapping. Misses are cached as well
+ * (negative caching) for {@code negativeTtl}. Every write invalidates the affected keys,
+ * {@code save} additionally puts the persisted user into the cache.
+ * <p>
+ * Inside a read-write unit of work reads bypass the cache and the users written are buffered per
+ * unit: they are put into the cache after the unit commits and discarded if it rolls back, so other
+ * threads never see uncommitted rows. Every key written in the unit is invalidated again at the end.
+ * <p>
+ * Returned users are shared cached instances and must be treated as read-only.
+ */
+public class CachingUserDaoProxy implements UserDao {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingUserDaoProxy.class);
+
+    private final UserDao target;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, EmailEntry> idByEmail = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // bumped on every write: a read that raced with a write must not populate the cache
+    private long writeVersion;
+
+    private final ThreadLocal<Touched> unitOfWork = new ThreadLocal<>();
+
+    public CachingUserDaoProxy(UserDao target) {
+        this(target, Settings.defaults());
+    }
+
+    public CachingUserDaoProxy(UserDao target, Settings settings) {
+        this(target, settings, System::nanoTime);
+    }
+
+    CachingUserDaoProxy(UserDao target, Settings settings, LongSupplier nanoClock) {
+        this.target = Objects.requireNonNull(target, "target UserDao must not be null");
+        this.settings = Objects.requireNonNull(settings, "settings must not be null");
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || unitOfWork.get() != null) {
+            return target.findById(id);
+        }
+
+        long version;
+        synchronized (this) {
+            Entry cached = liveEntry(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.ofNullable(cached.user);
+            }
+            misses.increment();
+            version = writeVersion;
+        }
+
+        Optional<User> loaded = target.findById(id);
+
+        synchronized (this) {
+            if (version == writeVersion) {
+                loaded.ifPresentOrElse(this::putUser, () -> putAbsentId(id));
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || unitOfWork.get() != null) {
+            return target.findByEmail(email);
+        }
+
+        long version;
+        synchronized (this) {
+            EmailEntry mapping = liveEmailEntry(email);
+            if (mapping != null) {
+                if (mapping.id == null) {
+                    hits.increment();
+                    return Optional.empty();
+                }
+                Entry cached = liveEntry(mapping.id);
+                if (cached != null && cached.user != null && email.equals(cached.user.getEmail())) {
+                    hits.increment();
+                    return Optional.of(cached.user);
+                }
+            }
+            misses.increment();
+            version = writeVersion;
+        }
+
+        Optional<User> loaded = target.findByEmail(email);
+
+        synchronized (this) {
+            if (version == writeVersion) {
+                loaded.ifPresentOrElse(this::putUser, () -> putAbsentEmail(email));
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public User save(User user) {
+        try {
+            User saved = target.save(user);
+            synchronized (this) {
+                writeVersion++;
+                if (saved != null && saved.getId() != null) {
+                    invalidateId(saved.getId());
+                    putWritten(saved);
+                }
+            }
+            return saved;
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                writeVersion++;
+                if (user != null && user.getEmail() != null) {
+                    invalidateEmail(user.getEmail());
+                }
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        try {
+            return target.updateById(id, name, email, age);
+        } finally {
+            synchronized (this) {
+                writeVersion++;
+                invalidateId(id);
+                if (email != null) {
+                    invalidateEmail(email);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        try {
+            Optional<User> updated = target.updateReturning(id, name, email, age);
+            synchronized (this) {
+                writeVersion++;
+                invalidateId(id);
+                if (email != null) {
+                    invalidateEmail(email);
+                }
+                updated.ifPresent(this::putWritten);
+            }
+            return updated;
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                writeVersion++;
+                invalidateId(id);
+                if (email != null) {
+                    invalidateEmail(email);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        try {
+            User upserted = target.upsertByEmail(name, email, age);
+            synchronized (this) {
+                writeVersion++;
+                if (email != null) {
+                    invalidateEmail(email);
+                }
+                if (upserted != null && upserted.getId() != null) {
+                    invalidateId(upserted.getId());
+                    putWritten(upserted);
+                }
+            }
+            return upserted;
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                writeVersion++;
+                if (email != null) {
+                    invalidateEmail(email);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public int delete(Long id) {
+        try {
+            return target.delete(id);
+        } finally {
+            synchronized (this) {
+                writeVersion++;
+                invalidateId(id);
+            }
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        return target.streamAll(consumer);
+    }
+
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        Objects.requireNonNull(work, "work must not be null");
+        if (mode == TxMode.READ_ONLY || unitOfWork.get() != null) {
+            return target.inTransaction(mode, tx -> work.apply(this));
+        }
+
+        Touched touched = new Touched(new HashSet<>(), new HashSet<>(), new LinkedHashMap<>());
+        unitOfWork.set(touched);
+        boolean committed = false;
+        try {
+            T result = target.inTransaction(mode, tx -> work.apply(this));
+            committed = true;
+            return result;
+        } finally {
+            unitOfWork.remove();
+            synchronized (this) {
+                writeVersion++;
+                touched.ids().forEach(this::invalidateId);
+                touched.emails().forEach(idByEmail::remove);
+                if (committed) {
+                    touched.written().values().forEach(this::putUser);
+                }
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        writeVersion++;
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (this) {
+            size = byId.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public void logStats() {
+        log.info("UserDao cache {}", stats());
+    }
+
+    private Entry liveEntry(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) return null;
+        if (entry.expiresAtNanos - nanoClock.getAsLong() <= 0) {
+            byId.remove(id);
+            return null;
+        }
+        return entry;
+    }
+
+    private EmailEntry liveEmailEntry(String email) {
+        EmailEntry entry = idByEmail.get(email);
+        if (entry == null) return null;
+        if (entry.expiresAtNanos - nanoClock.getAsLong() <= 0) {
+            idByEmail.remove(email);
+            return null;
+        }
+        return entry;
+    }
+
+    private void putUser(User user) {
+        if (user.getId() == null) return;
+        long expiresAt = nanoClock.getAsLong() + settings.ttl().toNanos();
+        byId.put(user.getId(), new Entry(user, expiresAt));
+        if (user.getEmail() != null) {
+            idByEmail.put(user.getEmail(), new EmailEntry(user.getId(), expiresAt));
+        }
+        evictOverflow();
+    }
+
+    /**
+     * Caches a user returned by a write, or buffers it until the current unit of work commits.
+     */
+    private void putWritten(User user) {
+        Touched touched = unitOfWork.get();
+        if (touched == null) {
+            putUser(user);
+        } else if (user.getId() != null) {
+            touched.written().put(user.getId(), user);
+        }
+    }
+
+    private void putAbsentId(Long id) {
+        if (settings.negativeTtl().isZero()) return;
+        byId.put(id, new Entry(null, nanoClock.getAsLong() + settings.negativeTtl().toNanos()));
+        evictOverflow();
+    }
+
+    private void putAbsentEmail(String email) {
+        if (settings.negativeTtl().isZero()) return;
+        idByEmail.put(email, new EmailEntry(null, nanoClock.getAsLong() + settings.negativeTtl().toNanos()));
+        evictOverflow();
+    }
+
+    private void invalidateId(Long id) {
+        if (id == null) return;
+        Touched touched = unitOfWork.get();
+        if (touched != null) {
+            touched.ids().add(id);
+            touched.written().remove(id);
+        }
+        Entry removed = byId.remove(id);
+        if (removed != null && removed.user != null && removed.user.getEmail() != null) {
+            idByEmail.remove(removed.user.getEmail());
+        }
+    }
+
+    private void invalidateEmail(String email) {
+        idByEmail.remove(email);
+        Touched touched = unitOfWork.get();
+        if (touched != null) {
+            touched.emails().add(email);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> it = byId.entrySet().iterator();
+        while (byId.size() > settings.maxSize() && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            if (eldest.user != null && eldest.user.getEmail() != null) {
+                idByEmail.remove(eldest.user.getEmail());
+            }
+            evictions.increment();
+        }
+        if (idByEmail.size() > settings.maxSize()) {
+            long now = nanoClock.getAsLong();
+            idByEmail.values().removeIf(e -> e.id == null || e.expiresAtNanos - now <= 0);
+        }
+    }
+
+    private record Touched(Set<Long> ids, Set<String> emails, Map<Long, User> written) {
+    }
+
+    private record Entry(User user, long expiresAtNanos) {
+    }
+
+    private record EmailEntry(Long id, long expiresAtNanos) {
+    }
+
+    public record Settings(int maxSize, Duration ttl, Duration negativeTtl) {
+
+        public Settings {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize must be positive");
+            }
+            Objects.requireNonNull(ttl, "ttl must not be null");
+            Objects.requireNonNull(negativeTtl, "negativeTtl must not be null");
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("ttl must be positive");
+            }
+            if (negativeTtl.isNegative()) {
+                throw new IllegalArgumentException("negativeTtl must not be negative");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(10_000, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheStats{hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, size=%d}",
+                    hits, misses, hitRatio(), evictions, size);
+        }
+    }
+}
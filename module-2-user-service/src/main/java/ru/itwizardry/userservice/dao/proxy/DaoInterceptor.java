@@ -0,0 +1,17 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+/**
+ * Cross-cutting concern applied by {@link InterceptingUserDaoProxy}.
+ * <p>
+ * An interceptor either calls {@link DaoInvocation#proceed()} to continue the chain
+ * or returns its own result. Interceptors reporting {@code isEnabled() == false}
+ * are skipped without being invoked.
+ */
+public interface DaoInterceptor {
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    Object intercept(DaoInvocation invocation);
+}
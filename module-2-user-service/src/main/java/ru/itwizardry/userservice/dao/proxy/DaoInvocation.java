@@ -0,0 +1,45 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import java.util.function.Supplier;
+
+public final class DaoInvocation {
+
+    private final DaoOperation operation;
+    private final Object[] args;
+    private final Supplier<?> target;
+    private final DaoInterceptor[] interceptors;
+    private int next;
+
+    DaoInvocation(DaoOperation operation, Object[] args, Supplier<?> target, DaoInterceptor[] interceptors) {
+        this.operation = operation;
+        this.args = args;
+        this.target = target;
+        this.interceptors = interceptors;
+    }
+
+    public DaoOperation operation() {
+        return operation;
+    }
+
+    public Object arg(int index) {
+        return args[index];
+    }
+
+    Object[] args() {
+        return args;
+    }
+
+    public String describe(UserDaoLogFormatter formatter) {
+        return operation.describe(formatter, args);
+    }
+
+    public Object proceed() {
+        while (next < interceptors.length) {
+            DaoInterceptor interceptor = interceptors[next++];
+            if (interceptor.isEnabled()) {
+                return interceptor.intercept(this);
+            }
+        }
+        return target.get();
+    }
+}
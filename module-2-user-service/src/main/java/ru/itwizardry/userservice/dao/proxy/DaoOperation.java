@@ -0,0 +1,73 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import ru.itwizardry.userservice.entity.User;
+
+public enum DaoOperation {
+
+    FIND_BY_ID("findById", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.findById((Long) args[0]);
+        }
+    },
+    FIND_BY_EMAIL("findByEmail", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.findByEmail((String) args[0]);
+        }
+    },
+    SAVE("save", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.save((User) args[0]);
+        }
+    },
+    UPDATE_BY_ID("updateById", true) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.updateById((Long) args[0], (String) args[1], (String) args[2], (Integer) args[3]);
+        }
+    },
+    UPDATE_RETURNING("updateReturning", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.updateReturning((Long) args[0], (String) args[1], (String) args[2], (Integer) args[3]);
+        }
+    },
+    UPSERT_BY_EMAIL("upsertByEmail", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.upsertByEmail((String) args[0], (String) args[1], (Integer) args[2]);
+        }
+    },
+    DELETE("delete", true) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.delete((Long) args[0]);
+        }
+    },
+    STREAM_ALL("streamAll", false) {
+        @Override
+        String describe(UserDaoLogFormatter formatter, Object[] args) {
+            return formatter.streamAll();
+        }
+    };
+
+    private final String methodName;
+    private final boolean returnsRowsAffected;
+
+    DaoOperation(String methodName, boolean returnsRowsAffected) {
+        this.methodName = methodName;
+        this.returnsRowsAffected = returnsRowsAffected;
+    }
+
+    public String methodName() {
+        return methodName;
+    }
+
+    public boolean returnsRowsAffected() {
+        return returnsRowsAffected;
+    }
+
+    abstract String describe(UserDaoLogFormatter formatter, Object[] args);
+}
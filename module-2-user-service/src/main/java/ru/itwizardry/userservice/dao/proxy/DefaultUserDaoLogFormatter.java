@@ -16,7 +16,7 @@ public class DefaultUserDaoLogFormatter implements UserDaoLogFormatter {
 
     @Override
     public String save(User user) {
-        return "UserDao.save email=" + maskEmail(user.getEmail());
+        return "UserDao.save email=" + maskEmail(user == null ? null : user.getEmail());
     }
 
     @Override
@@ -24,11 +24,26 @@ public class DefaultUserDaoLogFormatter implements UserDaoLogFormatter {
         return "UserDao.updateById id=" + id + " email=" + maskEmail(email);
     }
 
+    @Override
+    public String updateReturning(Long id, String name, String email, Integer age) {
+        return "UserDao.updateReturning id=" + id + " email=" + maskEmail(email);
+    }
+
+    @Override
+    public String upsertByEmail(String name, String email, Integer age) {
+        return "UserDao.upsertByEmail email=" + maskEmail(email);
+    }
+
     @Override
     public String delete(Long id) {
         return "UserDao.delete id=" + id;
     }
 
+    @Override
+    public String streamAll() {
+        return "UserDao.streamAll";
+    }
+
     private String maskEmail(String email) {
         if (email == null || email.isBlank()) return "null/blank";
         int at = email.indexOf('@');
@@ -0,0 +1,105 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single proxy layer that runs a chain of {@link DaoInterceptor}s around the target.
+ * <p>
+ * When no interceptor is enabled the call goes straight to the target,
+ * so disabled concerns cost one {@code isEnabled()} check each and no allocation.
+ */
+public class InterceptingUserDaoProxy implements UserDao {
+
+    private final UserDao target;
+    private final DaoInterceptor[] interceptors;
+
+    public InterceptingUserDaoProxy(UserDao target, List<? extends DaoInterceptor> interceptors) {
+        this.target = Objects.requireNonNull(target, "target UserDao must not be null");
+        Objects.requireNonNull(interceptors, "interceptors must not be null");
+        this.interceptors = interceptors.toArray(DaoInterceptor[]::new);
+        for (DaoInterceptor interceptor : this.interceptors) {
+            Objects.requireNonNull(interceptor, "interceptor must not be null");
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (!anyEnabled()) return target.findById(id);
+        return invoke(DaoOperation.FIND_BY_ID, new Object[]{id}, () -> target.findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (!anyEnabled()) return target.findByEmail(email);
+        return invoke(DaoOperation.FIND_BY_EMAIL, new Object[]{email}, () -> target.findByEmail(email));
+    }
+
+    @Override
+    public User save(User user) {
+        if (!anyEnabled()) return target.save(user);
+        return invoke(DaoOperation.SAVE, new Object[]{user}, () -> target.save(user));
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        if (!anyEnabled()) return target.updateById(id, name, email, age);
+        Integer rows = invoke(DaoOperation.UPDATE_BY_ID, new Object[]{id, name, email, age},
+                () -> target.updateById(id, name, email, age));
+        return rows;
+    }
+
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        if (!anyEnabled()) return target.updateReturning(id, name, email, age);
+        return invoke(DaoOperation.UPDATE_RETURNING, new Object[]{id, name, email, age},
+                () -> target.updateReturning(id, name, email, age));
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        if (!anyEnabled()) return target.upsertByEmail(name, email, age);
+        return invoke(DaoOperation.UPSERT_BY_EMAIL, new Object[]{name, email, age},
+                () -> target.upsertByEmail(name, email, age));
+    }
+
+    @Override
+    public int delete(Long id) {
+        if (!anyEnabled()) return target.delete(id);
+        Integer rows = invoke(DaoOperation.DELETE, new Object[]{id}, () -> target.delete(id));
+        return rows;
+    }
+
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        if (!anyEnabled()) return target.streamAll(consumer);
+        Long rows = invoke(DaoOperation.STREAM_ALL, new Object[]{consumer}, () -> target.streamAll(consumer));
+        return rows;
+    }
+
+    // nested calls come back through this proxy, so each of them is still intercepted
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        return target.inTransaction(mode, tx -> work.apply(this));
+    }
+
+    private boolean anyEnabled() {
+        for (DaoInterceptor interceptor : interceptors) {
+            if (interceptor.isEnabled()) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T invoke(DaoOperation operation, Object[] args, Supplier<T> call) {
+        return (T) new DaoInvocation(operation, args, call, interceptors).proceed();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.jfr.DaoOperationEvent;
+
+import java.util.Optional;
+
+/**
+ * Emits a {@link DaoOperationEvent} per call. When no recording has the event enabled the call
+ * goes straight through; fields are filled in only for events above the recording's threshold.
+ */
+public class JfrDaoInterceptor implements DaoInterceptor {
+
+    @Override
+    public Object intercept(DaoInvocation invocation) {
+        DaoOperationEvent event = new DaoOperationEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        RuntimeException failure = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = invocation.operation().methodName();
+                event.userId = userId(invocation, result);
+                event.rows = failure == null ? rows(invocation, result) : -1;
+                event.outcome = failure == null ? "OK"
+                        : failure instanceof DaoTimeoutException ? "TIMEOUT"
+                        : "ERROR";
+                event.error = failure == null ? null : failure.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+
+    private static long userId(DaoInvocation invocation, Object result) {
+        return switch (invocation.operation()) {
+            case FIND_BY_ID, UPDATE_BY_ID, UPDATE_RETURNING, DELETE -> invocation.arg(0) instanceof Long id ? id : 0;
+            case SAVE -> invocation.arg(0) instanceof User user ? idOf(user) : 0;
+            case FIND_BY_EMAIL -> result instanceof Optional<?> found && found.orElse(null) instanceof User user
+                    ? idOf(user) : 0;
+            case UPSERT_BY_EMAIL -> result instanceof User user ? idOf(user) : 0;
+            case STREAM_ALL -> 0;
+        };
+    }
+
+    private static long rows(DaoInvocation invocation, Object result) {
+        if (invocation.operation().returnsRowsAffected() || invocation.operation() == DaoOperation.STREAM_ALL) {
+            return result instanceof Number n ? n.longValue() : -1;
+        }
+        if (result instanceof Optional<?> found) {
+            return found.isPresent() ? 1 : 0;
+        }
+        return result == null ? 0 : 1;
+    }
+
+    private static long idOf(User user) {
+        return user.getId() == null ? 0 : user.getId();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+public class LoggingDaoInterceptor implements DaoInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingDaoInterceptor.class);
+
+    private final UserDaoLogFormatter formatter;
+
+    public LoggingDaoInterceptor(UserDaoLogFormatter formatter) {
+        this.formatter = Objects.requireNonNull(formatter, "formatter must not be null");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return log.isErrorEnabled();
+    }
+
+    @Override
+    public Object intercept(DaoInvocation invocation) {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            if (log.isInfoEnabled() && invocation.operation().returnsRowsAffected()) {
+                log.info("{} rowsAffected={}", invocation.describe(formatter), result);
+            }
+            // per-call timings are DEBUG only; slow calls are reported by SlowOperationDaoInterceptor
+            if (log.isDebugEnabled()) {
+                long tookMs = (System.nanoTime() - start) / 1_000_000;
+                log.debug("{} took {} ms", invocation.describe(formatter), tookMs);
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            long tookMs = (System.nanoTime() - start) / 1_000_000;
+            log.error("{} failed ({} ms)", invocation.describe(formatter), tookMs, ex);
+            throw ex;
+        }
+    }
+}
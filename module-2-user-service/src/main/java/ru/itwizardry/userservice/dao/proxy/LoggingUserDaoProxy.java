@@ -2,11 +2,14 @@ package ru.itwizardry.userservice.dao.proxy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.dao.TxMode;
 import ru.itwizardry.userservice.dao.UserDao;
 import ru.itwizardry.userservice.entity.User;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class LoggingUserDaoProxy implements UserDao {
@@ -46,6 +49,17 @@ public class LoggingUserDaoProxy implements UserDao {
         });
     }
 
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        return timed(formatter.updateReturning(id, name, email, age),
+                () -> target.updateReturning(id, name, email, age));
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        return timed(formatter.upsertByEmail(name, email, age), () -> target.upsertByEmail(name, email, age));
+    }
+
     @Override
     public int delete(Long id) {
         String op = formatter.delete(id);
@@ -56,6 +70,21 @@ public class LoggingUserDaoProxy implements UserDao {
         });
     }
 
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        String op = formatter.streamAll();
+        return timed(op, () -> {
+            long rows = target.streamAll(consumer);
+            log.info("{} rows={}", op, rows);
+            return rows;
+        });
+    }
+
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        return timed("UserDao.inTransaction mode=" + mode, () -> target.inTransaction(mode, tx -> work.apply(this)));
+    }
+
     private <T> T timed(String op, Supplier<T> action) {
         long start = System.nanoTime();
         try {
@@ -1,9 +1,12 @@
 package ru.itwizardry.userservice.dao.proxy;
 
+import ru.itwizardry.userservice.dao.TxMode;
 import ru.itwizardry.userservice.dao.UserDao;
 import ru.itwizardry.userservice.entity.User;
 
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class MaskingUserDaoProxy implements UserDao {
 
@@ -33,11 +36,31 @@ public class MaskingUserDaoProxy implements UserDao {
         return delegate.updateById(id, name, email, age);
     }
 
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        return delegate.updateReturning(id, name, email, age);
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        return delegate.upsertByEmail(name, email, age);
+    }
+
     @Override
     public int delete(Long id) {
         return delegate.delete(id);
     }
 
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        return delegate.streamAll(consumer);
+    }
+
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        return delegate.inTransaction(mode, tx -> work.apply(this));
+    }
+
     private static final class MaskingFormatter implements UserDaoLogFormatter {
 
         @Override
@@ -60,11 +83,26 @@ public class MaskingUserDaoProxy implements UserDao {
             return "UserDao.updateById id=" + id + " email=" + maskEmail(email);
         }
 
+        @Override
+        public String updateReturning(Long id, String name, String email, Integer age) {
+            return "UserDao.updateReturning id=" + id + " email=" + maskEmail(email);
+        }
+
+        @Override
+        public String upsertByEmail(String name, String email, Integer age) {
+            return "UserDao.upsertByEmail email=" + maskEmail(email);
+        }
+
         @Override
         public String delete(Long id) {
             return "UserDao.delete id=" + id;
         }
 
+        @Override
+        public String streamAll() {
+            return "UserDao.streamAll";
+        }
+
         private static String userEmail(User user) {
             return user == null ? null : user.getEmail();
         }
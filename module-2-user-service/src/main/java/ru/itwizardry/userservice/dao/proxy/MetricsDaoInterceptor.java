@@ -0,0 +1,29 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import ru.itwizardry.userservice.dao.metrics.DaoMetrics;
+import ru.itwizardry.userservice.dao.metrics.OperationMetrics;
+
+import java.util.Objects;
+
+public class MetricsDaoInterceptor implements DaoInterceptor {
+
+    private final DaoMetrics metrics;
+
+    public MetricsDaoInterceptor(DaoMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+    }
+
+    @Override
+    public Object intercept(DaoInvocation invocation) {
+        OperationMetrics operation = metrics.forOperation(invocation.operation());
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            operation.recordSuccess(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException ex) {
+            operation.recordError(System.nanoTime() - start);
+            throw ex;
+        }
+    }
+}
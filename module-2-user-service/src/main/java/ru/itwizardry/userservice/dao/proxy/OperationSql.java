@@ -0,0 +1,88 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * SQL equivalent of a {@link DaoOperation} together with its bind parameters, used to report and
+ * {@code EXPLAIN} slow calls. The statements mirror what {@code UserDaoImpl} and Hibernate send.
+ */
+public record OperationSql(DaoOperation operation, String sql, List<Object> params) {
+
+    private static final String SELECT_BY_ID = "SELECT * FROM users WHERE id = ?";
+    private static final String SELECT_BY_EMAIL = "SELECT * FROM users "
+            + "WHERE email_fp = hashtextextended(lower(?), 0) AND email = ?";
+    private static final String INSERT = "INSERT INTO users (id, name, email, age, created_at) "
+            + "VALUES (nextval('" + User.ID_SEQUENCE + "'), ?, ?, ?, now())";
+    private static final String UPDATE = "UPDATE users SET name = ?, email = ?, age = ? WHERE id = ? RETURNING *";
+    private static final String UPSERT = "INSERT INTO users (id, name, email, age, created_at) "
+            + "VALUES (nextval('" + User.ID_SEQUENCE + "'), ?, ?, ?, now()) "
+            + "ON CONFLICT (email) DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age RETURNING *";
+    private static final String DELETE = "DELETE FROM users WHERE id = ?";
+    private static final String SELECT_ALL = "SELECT * FROM users ORDER BY id";
+
+    public OperationSql {
+        Objects.requireNonNull(operation, "operation must not be null");
+        Objects.requireNonNull(sql, "sql must not be null");
+        // not List.copyOf: a bind parameter may well be null
+        params = Collections.unmodifiableList(new ArrayList<>(params));
+    }
+
+    public static OperationSql of(DaoOperation operation, Object[] args) {
+        return switch (operation) {
+            case FIND_BY_ID -> new OperationSql(operation, SELECT_BY_ID, params(args[0]));
+            case FIND_BY_EMAIL -> new OperationSql(operation, SELECT_BY_EMAIL, params(args[0], args[0]));
+            case SAVE -> {
+                User user = (User) args[0];
+                yield user == null
+                        ? new OperationSql(operation, INSERT, params(null, null, null))
+                        : new OperationSql(operation, INSERT, params(user.getName(), user.getEmail(), user.getAge()));
+            }
+            case UPDATE_BY_ID, UPDATE_RETURNING ->
+                    new OperationSql(operation, UPDATE, params(args[1], args[2], args[3], args[0]));
+            case UPSERT_BY_EMAIL -> new OperationSql(operation, UPSERT, params(args[0], args[1], args[2]));
+            case DELETE -> new OperationSql(operation, DELETE, params(args[0]));
+            case STREAM_ALL -> new OperationSql(operation, SELECT_ALL, List.of());
+        };
+    }
+
+    /**
+     * {@code EXPLAIN (ANALYZE, BUFFERS)} for point lookups. Writes get a plain {@code EXPLAIN (FORMAT TEXT)}:
+     * ANALYZE would execute them, firing triggers, sequences and locks even if rolled back.
+     * {@code streamAll} is not analysed either, since that would read the whole table again.
+     */
+    public String explainSql() {
+        return switch (operation) {
+            case FIND_BY_ID, FIND_BY_EMAIL -> "EXPLAIN (ANALYZE, BUFFERS) " + sql;
+            case STREAM_ALL -> "EXPLAIN " + sql;
+            case SAVE, UPDATE_BY_ID, UPDATE_RETURNING, UPSERT_BY_EMAIL, DELETE -> "EXPLAIN (FORMAT TEXT) " + sql;
+        };
+    }
+
+    /**
+     * Types and string lengths of the bind parameters, never their values: {@code [$1=String(4), $2=Long]}.
+     */
+    public String paramShapes() {
+        StringJoiner shapes = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < params.size(); i++) {
+            shapes.add("$" + (i + 1) + "=" + shape(params.get(i)));
+        }
+        return shapes.toString();
+    }
+
+    private static String shape(Object value) {
+        if (value == null) return "null";
+        if (value instanceof String s) return "String(" + s.length() + ")";
+        return value.getClass().getSimpleName();
+    }
+
+    private static List<Object> params(Object... values) {
+        return Arrays.asList(values);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports DAO calls slower than {@code threshold} to the {@value #SLOW_LOG} logger: the masked call,
+ * its SQL and the shapes of the bind parameters, followed by the plan when an explainer is configured
+ * and not rate-limited: {@code EXPLAIN (ANALYZE, BUFFERS)} for lookups, a plain {@code EXPLAIN} for
+ * writes (see {@link OperationSql#explainSql()}). Entries of one call share a {@code slow#N} tag.
+ * Failed calls are reported as well.
+ */
+public class SlowOperationDaoInterceptor implements DaoInterceptor {
+
+    public static final String SLOW_LOG = "ru.itwizardry.userservice.slow";
+
+    private static final Logger log = LoggerFactory.getLogger(SLOW_LOG);
+
+    private final long thresholdNanos;
+    private final UserDaoLogFormatter formatter;
+    private final SlowQueryExplainer explainer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowOperationDaoInterceptor(Duration threshold, UserDaoLogFormatter formatter) {
+        this(threshold, formatter, null);
+    }
+
+    /**
+     * @param explainer may be {@code null}: slow calls are then logged without a plan
+     */
+    public SlowOperationDaoInterceptor(Duration threshold, UserDaoLogFormatter formatter,
+                                       SlowQueryExplainer explainer) {
+        Objects.requireNonNull(threshold, "threshold must not be null");
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.formatter = Objects.requireNonNull(formatter, "formatter must not be null");
+        this.explainer = explainer;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return log.isWarnEnabled();
+    }
+
+    @Override
+    public Object intercept(DaoInvocation invocation) {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long took = System.nanoTime() - start;
+            if (took >= thresholdNanos) {
+                report(invocation, took);
+            }
+        }
+    }
+
+    private void report(DaoInvocation invocation, long tookNanos) {
+        try {
+            OperationSql statement = OperationSql.of(invocation.operation(), invocation.args());
+            long id = sequence.incrementAndGet();
+            log.warn("slow#{} {} took {} ms (threshold {} ms) sql=[{}] params={}",
+                    id, invocation.describe(formatter), tookNanos / 1_000_000, thresholdNanos / 1_000_000,
+                    statement.sql(), statement.paramShapes());
+
+            if (explainer == null) {
+                return;
+            }
+            boolean scheduled = explainer.explainAsync(statement, plan -> log.warn("slow#{} plan:\n{}", id, plan));
+            if (!scheduled) {
+                log.debug("slow#{} plan skipped: EXPLAIN rate limit reached or explain queue full", id);
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Could not report slow {}", invocation.operation().methodName(), ex);
+        }
+    }
+}
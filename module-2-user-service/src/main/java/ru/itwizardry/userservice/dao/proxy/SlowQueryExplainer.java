@@ -0,0 +1,121 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@code EXPLAIN} for slow DAO calls: lookups are analysed ({@code ANALYZE, BUFFERS}), writes only
+ * planned, so an explain never executes DML (see {@link OperationSql#explainSql()}).
+ * <p>
+ * Every explain runs in its own transaction that is always rolled back, bounded by
+ * {@code statement_timeout = timeout}. Explains are rate-limited to
+ * {@code maxPerMinute} and run on one background thread; requests beyond the limit or a full queue
+ * are dropped rather than slowing the application down further, and {@link #explainAsync} says so.
+ * A full queue does not use up the rate limit.
+ */
+public class SlowQueryExplainer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryExplainer.class);
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final SessionFactory sessionFactory;
+    private final long minIntervalNanos;
+    private final Duration timeout;
+    private final AtomicLong nextPermitNanos;
+    private final ThreadPoolExecutor executor;
+
+    public SlowQueryExplainer(SessionFactory sessionFactory, int maxPerMinute, Duration timeout) {
+        this.sessionFactory = Objects.requireNonNull(sessionFactory, "sessionFactory must not be null");
+        this.timeout = Objects.requireNonNull(timeout, "timeout must not be null");
+        if (maxPerMinute <= 0) {
+            throw new IllegalArgumentException("maxPerMinute must be positive");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.minIntervalNanos = TimeUnit.MINUTES.toNanos(1) / maxPerMinute;
+        this.nextPermitNanos = new AtomicLong(System.nanoTime());
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "user-dao-slow-explain");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Schedules an explain and hands the plan to {@code sink}; returns {@code false} when rate-limited,
+     * when the queue is full or after {@link #close()}.
+     */
+    public boolean explainAsync(OperationSql statement, Consumer<String> sink) {
+        if (executor.getQueue().remainingCapacity() == 0 || !tryAcquire(System.nanoTime())) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    sink.accept(explain(statement));
+                } catch (RuntimeException ex) {
+                    log.warn("EXPLAIN of {} failed", statement.operation().methodName(), ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // the queue filled up since the check above, or the explainer is closed
+            return false;
+        }
+        return true;
+    }
+
+    public String explain(OperationSql statement) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                return session.doReturningWork(connection -> {
+                    try (Statement st = connection.createStatement()) {
+                        st.execute("SET LOCAL statement_timeout = " + timeout.toMillis());
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(statement.explainSql())) {
+                        for (int i = 0; i < statement.params().size(); i++) {
+                            ps.setObject(i + 1, statement.params().get(i));
+                        }
+                        StringBuilder plan = new StringBuilder();
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                plan.append(rs.getString(1)).append('\n');
+                            }
+                        }
+                        return plan.toString();
+                    }
+                });
+            } finally {
+                tx.rollback();
+            }
+        }
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        long next = nextPermitNanos.get();
+        return nowNanos - next >= 0 && nextPermitNanos.compareAndSet(next, nowNanos + minIntervalNanos);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
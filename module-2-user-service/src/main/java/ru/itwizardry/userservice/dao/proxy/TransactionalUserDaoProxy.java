@@ -1,22 +1,78 @@
 package ru.itwizardry.userservice.dao.proxy;
 
+import org.hibernate.CacheMode;
+import org.hibernate.JDBCException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.Deadline;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.dao.UserBatchWriter;
 import ru.itwizardry.userservice.dao.UserDao;
 import ru.itwizardry.userservice.dao.UserDaoImpl;
+import ru.itwizardry.userservice.dao.UserUpdate;
 import ru.itwizardry.userservice.entity.User;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-public class TransactionalUserDaoProxy implements UserDao {
+/**
+ * Runs every call in its own session and transaction, or in the session of the surrounding
+ * {@link #inTransaction(TxMode, Function) unit of work} when one is open on the calling thread.
+ * <p>
+ * Calls are bounded by the {@link Deadline} bound to the calling thread, or by
+ * {@code defaultTimeout} when none is bound ({@link Duration#ZERO} disables it;
+ * {@code streamAll} only honours an explicitly bound deadline). The remaining time becomes
+ * {@code SET LOCAL statement_timeout} and the JDBC query timeout, a watchdog cancels the
+ * running statement shortly after the deadline, and timeouts surface as {@link DaoTimeoutException}.
+ * A unit of work takes its deadline once, when it starts, and all calls inside it share it.
+ * A unique violation surfaces as {@link DuplicateEmailException}.
+ */
+public class TransactionalUserDaoProxy implements UserDao, UserBatchWriter {
+
+    private static final String BATCH_UPDATE_SQL = "update users set name = ?, email = ?, age = ? where id = ?";
+
+    private static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+    private static final String SQLSTATE_QUERY_CANCELED = "57014";
+    private static final String SQLSTATE_UNIQUE_VIOLATION = "23505";
+    // statement_timeout should fire on the server first, the client-side cancel is a backstop
+    private static final long CANCEL_GRACE_MS = 100;
+
+    private static final ScheduledExecutorService CANCELLER = newCanceller();
 
     private final SessionFactory sessionFactory;
+    private final Duration defaultTimeout;
+    private final ThreadLocal<UnitOfWork> unitOfWork = new ThreadLocal<>();
 
     public TransactionalUserDaoProxy(SessionFactory sessionFactory) {
+        this(sessionFactory, Duration.ZERO);
+    }
+
+    public TransactionalUserDaoProxy(SessionFactory sessionFactory, Duration defaultTimeout) {
         this.sessionFactory = Objects.requireNonNull(sessionFactory, "sessionFactory");
+        this.defaultTimeout = Objects.requireNonNull(defaultTimeout, "defaultTimeout");
+        if (defaultTimeout.isNegative()) {
+            throw new IllegalArgumentException("defaultTimeout must not be negative");
+        }
     }
 
     @Override
@@ -39,21 +95,192 @@ public class TransactionalUserDaoProxy implements UserDao {
         return withTx(session -> new UserDaoImpl(session).updateById(id, name, email, age));
     }
 
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        Optional<User> updated = withTx(session -> new UserDaoImpl(session).updateReturning(id, name, email, age));
+        updated.ifPresent(user -> evictFromSecondLevelCache(user.getId()));
+        return updated;
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        User user = withTx(session -> new UserDaoImpl(session).upsertByEmail(name, email, age));
+        evictFromSecondLevelCache(user.getId());
+        return user;
+    }
+
     @Override
     public int delete(Long id) {
         return withTx(session -> new UserDaoImpl(session).delete(id));
     }
 
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            return new UserDaoImpl(current.session()).streamAll(consumer);
+        }
+
+        Deadline deadline = Deadline.current().orElse(null);
+        long timeoutMs = deadline == null ? 0 : remainingMillisOrThrow(deadline);
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // a full scan would otherwise read every row through the User region and push it into the cache
+            session.setCacheMode(CacheMode.IGNORE);
+            Transaction tx = session.beginTransaction();
+            try {
+                if (deadline != null) {
+                    setStatementTimeout(session, timeoutMs);
+                }
+
+                long count = 0;
+                try (ScrollableResults<User> rows = session.createQuery(
+                                "select u from User u order by u.id",
+                                User.class
+                        )
+                        .setReadOnly(true)
+                        .setFetchSize(UserDaoImpl.STREAM_FETCH_SIZE)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+
+                    while (rows.next()) {
+                        consumer.accept(rows.get());
+                        count++;
+                    }
+                }
+                tx.commit();
+                return count;
+            } catch (RuntimeException ex) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw translate(ex);
+            }
+        }
+    }
+
+    /**
+     * Binds one session and transaction to the calling thread for the duration of {@code work};
+     * every call on this proxy made inside it joins that transaction. A nested unit of work joins
+     * the outer one; a read-write one cannot be nested inside a read-only one.
+     */
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        Objects.requireNonNull(mode, "mode must not be null");
+        Objects.requireNonNull(work, "work must not be null");
+
+        UnitOfWork outer = unitOfWork.get();
+        if (outer != null) {
+            if (outer.mode() == TxMode.READ_ONLY && mode == TxMode.READ_WRITE) {
+                throw new IllegalStateException("Cannot start a read-write unit of work inside a read-only one");
+            }
+            return work.apply(this);
+        }
+
+        UnitOfWork[] started = new UnitOfWork[1];
+        try {
+            return withTx(session -> {
+                if (mode == TxMode.READ_ONLY) {
+                    session.setDefaultReadOnly(true);
+                    setTransactionReadOnly(session);
+                }
+                started[0] = new UnitOfWork(session, mode, new HashSet<>());
+                unitOfWork.set(started[0]);
+                try {
+                    return work.apply(this);
+                } finally {
+                    unitOfWork.remove();
+                }
+            });
+        } finally {
+            // evict again once the outcome is visible, so no reader re-caches the pre-commit row
+            if (started[0] != null) {
+                started[0].evictAfterCompletion().forEach(this::evictFromSecondLevelCache);
+            }
+        }
+    }
+
+    @Override
+    public int[] updateAllById(List<UserUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+
+        int[] rows = withTx(session -> session.doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(BATCH_UPDATE_SQL)) {
+                for (UserUpdate update : updates) {
+                    ps.setString(1, update.name());
+                    ps.setString(2, update.email());
+                    ps.setInt(3, update.age());
+                    ps.setLong(4, update.id());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+
+        for (UserUpdate update : updates) {
+            evictFromSecondLevelCache(update.id());
+        }
+        return rows;
+    }
+
+    // plain JDBC and native DML bypass Hibernate, so the second-level cache has to be evicted by hand
+    private void evictFromSecondLevelCache(Long id) {
+        sessionFactory.getCache().evictEntityData(User.class, id);
+
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            current.evictAfterCompletion().add(id);
+        }
+    }
+
+    /**
+     * Runs arbitrary work in one transaction, with the same deadline handling as the DAO methods.
+     */
+    public <T> T withTransaction(Function<Session, T> work) {
+        return withTx(work);
+    }
+
     private <T> T withSession(Function<Session, T> work) {
-        try (Session session = sessionFactory.openSession()) {
-            return work.apply(session);
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            return work.apply(current.session());
+        }
+
+        Deadline deadline = effectiveDeadline();
+        if (deadline == null) {
+            try (Session session = sessionFactory.openSession()) {
+                return work.apply(session);
+            }
         }
+        // SET LOCAL only works inside a transaction, so bounded reads get a read-only one
+        return withTx(session -> {
+            session.setDefaultReadOnly(true);
+            return work.apply(session);
+        }, deadline);
     }
 
     private <T> T withTx(Function<Session, T> work) {
+        UnitOfWork current = unitOfWork.get();
+        if (current != null) {
+            return work.apply(current.session());
+        }
+        return withTx(work, effectiveDeadline());
+    }
+
+    private <T> T withTx(Function<Session, T> work, Deadline deadline) {
+        long timeoutMs = deadline == null ? 0 : remainingMillisOrThrow(deadline);
+
         try (Session session = sessionFactory.openSession()) {
             Transaction tx = session.beginTransaction();
+            ScheduledFuture<?> watchdog = null;
             try {
+                if (deadline != null) {
+                    setStatementTimeout(session, timeoutMs);
+                    session.setProperty(QUERY_TIMEOUT_HINT, (int) Math.min(Integer.MAX_VALUE, timeoutMs));
+                    watchdog = CANCELLER.schedule(session::cancelQuery,
+                            timeoutMs + CANCEL_GRACE_MS, TimeUnit.MILLISECONDS);
+                }
                 T result = work.apply(session);
                 tx.commit();
                 return result;
@@ -61,8 +288,76 @@ public class TransactionalUserDaoProxy implements UserDao {
                 if (tx.isActive()) {
                     tx.rollback();
                 }
-                throw ex;
+                throw translate(ex);
+            } finally {
+                if (watchdog != null) {
+                    watchdog.cancel(false);
+                }
+            }
+        }
+    }
+
+    private Deadline effectiveDeadline() {
+        Optional<Deadline> bound = Deadline.current();
+        if (bound.isPresent()) {
+            return bound.get();
+        }
+        return defaultTimeout.isZero() ? null : Deadline.after(defaultTimeout);
+    }
+
+    private static long remainingMillisOrThrow(Deadline deadline) {
+        long remainingMs = deadline.remainingMillis();
+        if (remainingMs <= 0) {
+            throw new DaoTimeoutException("Deadline expired before the UserDao call started");
+        }
+        return remainingMs;
+    }
+
+    private static void setStatementTimeout(SharedSessionContract session, long timeoutMs) {
+        session.doWork(connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("SET LOCAL statement_timeout = " + timeoutMs);
+            }
+        });
+    }
+
+    /**
+     * Plain JDBC rather than a native mutation query: Hibernate cannot tell which tables a native
+     * mutation touches and would invalidate every second-level cache region.
+     */
+    private static void setTransactionReadOnly(SharedSessionContract session) {
+        session.doWork(connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("SET TRANSACTION READ ONLY");
+            }
+        });
+    }
+
+    private static RuntimeException translate(RuntimeException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            String sqlState = t instanceof JDBCException j ? j.getSQLState()
+                    : t instanceof SQLException s ? s.getSQLState()
+                    : null;
+            if (SQLSTATE_QUERY_CANCELED.equals(sqlState)) {
+                return new DaoTimeoutException("UserDao call cancelled: deadline exceeded", ex);
+            }
+            if (SQLSTATE_UNIQUE_VIOLATION.equals(sqlState)) {
+                return new DuplicateEmailException("Email already exists", ex);
             }
         }
+        return ex;
+    }
+
+    private static ScheduledExecutorService newCanceller() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "user-dao-statement-canceller");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private record UnitOfWork(Session session, TxMode mode, Set<Long> evictAfterCompletion) {
     }
 }
@@ -7,5 +7,8 @@ public interface UserDaoLogFormatter {
     String findByEmail(String email);
     String save(User user);
     String updateById(Long id, String name, String email, Integer age);
+    String updateReturning(Long id, String name, String email, Integer age);
+    String upsertByEmail(String name, String email, Integer age);
     String delete(Long id);
+    String streamAll();
 }
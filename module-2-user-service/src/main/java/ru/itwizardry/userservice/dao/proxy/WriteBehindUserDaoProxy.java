@@ -0,0 +1,379 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.dao.UserBatchWriter;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.dao.UserUpdate;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Write-behind buffer for {@code updateById}.
+ * <p>
+ * Durability semantics: an update is acknowledged as soon as it is buffered in memory and
+ * always reports {@code rowsAffected = 1}. Repeated updates of the same id are coalesced
+ * (last write wins) and written later as one JDBC batch, when {@code batchSize} updates are
+ * pending or every {@code flushInterval}. Updates still in memory are lost if the JVM dies;
+ * {@link #close()} and the optional shutdown hook flush them. Failures (e.g. duplicate email)
+ * are not reported to the caller: the batch is retried row by row and rows that still fail
+ * are logged and dropped.
+ * <p>
+ * Reads through this proxy see buffered updates. All other writes and {@code streamAll} are
+ * written through; everything except {@code delete} flushes first. {@code updateReturning}
+ * promises the row as stored, so it is written through too, after the pending update of its id. Inside a unit of work
+ * ({@code inTransaction}) the buffer is flushed up front and updates are written through
+ * as well, so the unit stays atomic.
+ * When {@code maxPending} distinct ids are buffered, writers block for up to
+ * {@code offerTimeout} and then fail with {@link IllegalStateException}.
+ */
+public class WriteBehindUserDaoProxy implements UserDao, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindUserDaoProxy.class);
+
+    private final UserDao target;
+    private final UserBatchWriter batchWriter;
+    private final Settings settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Object flushMonitor = new Object();
+
+    private LinkedHashMap<Long, UserUpdate> pending = new LinkedHashMap<>();
+    private Map<Long, UserUpdate> inFlight = Map.of();
+
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ThreadLocal<Boolean> inUnitOfWork = new ThreadLocal<>();
+
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WriteBehindUserDaoProxy(UserDao target, UserBatchWriter batchWriter, Settings settings) {
+        this.target = Objects.requireNonNull(target, "target UserDao must not be null");
+        this.batchWriter = Objects.requireNonNull(batchWriter, "batchWriter must not be null");
+        this.settings = Objects.requireNonNull(settings, "settings must not be null");
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "user-dao-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMs = settings.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public WriteBehindUserDaoProxy installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "user-dao-write-behind-shutdown"));
+        return this;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        UserUpdate update = pendingFor(id);
+        Optional<User> loaded = target.findById(id);
+        return update == null ? loaded : loaded.map(user -> apply(user, update));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        UserUpdate movedHere = pendingWithEmail(email);
+        if (movedHere != null) {
+            return findById(movedHere.id());
+        }
+
+        Optional<User> loaded = target.findByEmail(email);
+        if (loaded.isEmpty()) {
+            return loaded;
+        }
+        UserUpdate update = pendingFor(loaded.get().getId());
+        if (update == null) {
+            return loaded;
+        }
+        if (!Objects.equals(email, update.email())) {
+            return Optional.empty();
+        }
+        return Optional.of(apply(loaded.get(), update));
+    }
+
+    @Override
+    public User save(User user) {
+        flush();
+        return target.save(user);
+    }
+
+    @Override
+    public int updateById(Long id, String name, String email, Integer age) {
+        if (id == null || closed.get() || inUnitOfWork.get() != null) {
+            return target.updateById(id, name, email, age);
+        }
+        enqueue(new UserUpdate(id, name, email, age));
+        return 1;
+    }
+
+    /**
+     * Written through: the pending update of {@code id} is written first (under the flush monitor,
+     * so no batch holding it is still in flight), then the row is updated and returned as stored.
+     */
+    @Override
+    public Optional<User> updateReturning(Long id, String name, String email, Integer age) {
+        synchronized (flushMonitor) {
+            UserUpdate own = takePending(id);
+            if (own != null) {
+                write(List.of(own));
+            }
+            return target.updateReturning(id, name, email, age);
+        }
+    }
+
+    @Override
+    public User upsertByEmail(String name, String email, Integer age) {
+        flush();
+        return target.upsertByEmail(name, email, age);
+    }
+
+    @Override
+    public int delete(Long id) {
+        lock.lock();
+        try {
+            if (pending.remove(id) != null) {
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return target.delete(id);
+    }
+
+    @Override
+    public long streamAll(Consumer<User> consumer) {
+        flush();
+        return target.streamAll(consumer);
+    }
+
+    @Override
+    public <T> T inTransaction(TxMode mode, Function<UserDao, T> work) {
+        if (inUnitOfWork.get() != null) {
+            return target.inTransaction(mode, tx -> work.apply(this));
+        }
+        flush();
+        inUnitOfWork.set(Boolean.TRUE);
+        try {
+            return target.inTransaction(mode, tx -> work.apply(this));
+        } finally {
+            inUnitOfWork.remove();
+        }
+    }
+
+    public void flush() {
+        synchronized (flushMonitor) {
+            Map<Long, UserUpdate> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                write(List.copyOf(batch.values()));
+            } finally {
+                lock.lock();
+                try {
+                    inFlight = Map.of();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    public WriteBehindStats stats() {
+        int buffered;
+        lock.lock();
+        try {
+            buffered = pending.size();
+        } finally {
+            lock.unlock();
+        }
+        return new WriteBehindStats(buffered, coalesced.sum(), batches.sum(), flushed.sum(), failed.sum());
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(settings.offerTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Write-behind closed: {}", stats());
+    }
+
+    private void enqueue(UserUpdate update) {
+        boolean flushNow;
+
+        lock.lock();
+        try {
+            awaitCapacity(update.id());
+            if (pending.put(update.id(), update) != null) {
+                coalesced.increment();
+            }
+            flushNow = pending.size() >= settings.batchSize();
+        } finally {
+            lock.unlock();
+        }
+
+        if (flushNow) {
+            triggerFlush();
+        }
+    }
+
+    private void awaitCapacity(Long id) {
+        long remaining = settings.offerTimeout().toNanos();
+        while (!pending.containsKey(id) && pending.size() >= settings.maxPending()) {
+            if (remaining <= 0) {
+                throw new IllegalStateException("Write-behind buffer is full (" + settings.maxPending() + " pending)");
+            }
+            triggerFlush();
+            try {
+                remaining = notFull.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for write-behind capacity", e);
+            }
+        }
+    }
+
+    private void write(List<UserUpdate> updates) {
+        try {
+            batchWriter.updateAllById(updates);
+            batches.increment();
+            flushed.add(updates.size());
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind batch of {} updates failed, retrying one by one", updates.size(), ex);
+            for (UserUpdate u : updates) {
+                try {
+                    target.updateById(u.id(), u.name(), u.email(), u.age());
+                    flushed.increment();
+                } catch (RuntimeException rowEx) {
+                    failed.increment();
+                    log.error("Write-behind update dropped: UserDao.updateById id={}", u.id(), rowEx);
+                }
+            }
+        }
+    }
+
+    private void triggerFlush() {
+        if (!flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Write-behind flush failed", ex);
+        }
+    }
+
+    private UserUpdate takePending(Long id) {
+        if (id == null) return null;
+        lock.lock();
+        try {
+            UserUpdate update = pending.remove(id);
+            if (update != null) {
+                notFull.signalAll();
+            }
+            return update;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserUpdate pendingFor(Long id) {
+        if (id == null) return null;
+        lock.lock();
+        try {
+            UserUpdate update = pending.get(id);
+            return update != null ? update : inFlight.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserUpdate pendingWithEmail(String email) {
+        if (email == null) return null;
+        lock.lock();
+        try {
+            for (UserUpdate update : pending.values()) {
+                if (email.equals(update.email())) return update;
+            }
+            for (UserUpdate update : inFlight.values()) {
+                if (email.equals(update.email()) && !pending.containsKey(update.id())) return update;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static User apply(User user, UserUpdate update) {
+        user.setName(update.name());
+        user.setEmail(update.email());
+        user.setAge(update.age());
+        return user;
+    }
+
+    public record Settings(int batchSize, int maxPending, Duration flushInterval, Duration offerTimeout) {
+
+        public Settings {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive");
+            }
+            if (maxPending < batchSize) {
+                throw new IllegalArgumentException("maxPending must be >= batchSize");
+            }
+            Objects.requireNonNull(flushInterval, "flushInterval must not be null");
+            Objects.requireNonNull(offerTimeout, "offerTimeout must not be null");
+            if (flushInterval.isNegative() || flushInterval.isZero()) {
+                throw new IllegalArgumentException("flushInterval must be positive");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(500, 10_000, Duration.ofMillis(200), Duration.ofSeconds(5));
+        }
+    }
+
+    public record WriteBehindStats(int buffered, long coalesced, long batches, long flushed, long failed) {
+    }
+}
@@ -0,0 +1,88 @@
+package ru.itwizardry.userservice.export;
+
+import ru.itwizardry.userservice.csv.CsvFormat;
+import ru.itwizardry.userservice.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Writes users as CSV rows through a single reusable direct buffer,
+ * so memory use does not depend on the number of rows written.
+ */
+public class UserCsvWriter implements Consumer<User>, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String HEADER = "id,name,email,age,created_at\n";
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    public UserCsvWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        write(HEADER);
+    }
+
+    @Override
+    public void accept(User user) {
+        line.setLength(0);
+        line.append(user.getId()).append(',');
+        CsvFormat.appendField(line, user.getName());
+        line.append(',');
+        CsvFormat.appendField(line, user.getEmail());
+        line.append(',').append(user.getAge()).append(',');
+        if (user.getCreatedAt() != null) {
+            line.append(user.getCreatedAt());
+        }
+        line.append('\n');
+        write(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void write(CharSequence text) {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+            buffer.put(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write CSV row", e);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
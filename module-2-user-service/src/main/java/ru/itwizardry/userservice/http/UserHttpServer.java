@@ -0,0 +1,241 @@
+package ru.itwizardry.userservice.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.service.UserService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON front-end for {@link UserService} on the JDK's built-in {@link HttpServer}, one virtual
+ * thread per request. Paths and payloads follow module-4 so both can be load-tested the same way:
+ * <pre>
+ * POST   /api/users              {"name","email","age"}  201 + Location
+ * GET    /api/users/{id}                                 200 | 404
+ * GET    /api/users?email=...                            200 | 404
+ * PUT    /api/users/{id}         {"name","email","age"}  200 | 404
+ * DELETE /api/users/{id}                                 204
+ * </pre>
+ * Validation errors and duplicate emails are 400 (as in module-4), missed deadlines and a store that
+ * cannot take the request right now ({@link IllegalStateException}) 503; error bodies have the shape
+ * of module-4's {@code ErrorResponse}.
+ */
+public final class UserHttpServer implements AutoCloseable {
+
+    public static final String BASE_PATH = "/api/users";
+
+    private static final Logger log = LoggerFactory.getLogger(UserHttpServer.class);
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final UserService userService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private UserHttpServer(UserService userService, HttpServer server, ExecutorService executor) {
+        this.userService = userService;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Binds to {@code address} (port {@code 0} picks a free one) and starts serving.
+     */
+    public static UserHttpServer start(UserService userService, InetSocketAddress address) throws IOException {
+        Objects.requireNonNull(userService, "userService must not be null");
+        Objects.requireNonNull(address, "address must not be null");
+
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        UserHttpServer httpServer = new UserHttpServer(userService, server, executor);
+
+        server.createContext(BASE_PATH, httpServer::handle);
+        server.setExecutor(executor);
+        server.start();
+        return httpServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting connections, gives in-flight exchanges up to a second and waits for their threads.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Validation Error", "Id must be a number");
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, "Validation Error", e.getMessage());
+            } catch (DuplicateEmailException e) {
+                sendError(exchange, 400, "Duplicate Email", e.getMessage());
+            } catch (DaoTimeoutException e) {
+                sendError(exchange, 503, "Timeout", e.getMessage());
+            } catch (IllegalStateException e) {
+                // DuplicateEmailException is one too and must stay above
+                // write-behind backpressure, a read-only or closed store: the request may succeed later
+                log.warn("Request {} {} rejected: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage());
+                sendError(exchange, 503, "Service Unavailable", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                sendError(exchange, 500, "Internal Server Error", "Unexpected error");
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.equals(BASE_PATH) || path.equals(BASE_PATH + "/")) {
+            switch (method) {
+                case "POST" -> create(exchange);
+                case "GET" -> getByEmail(exchange);
+                default -> sendMethodNotAllowed(exchange, "GET, POST");
+            }
+            return;
+        }
+
+        String idSegment = path.startsWith(BASE_PATH + "/") ? path.substring(BASE_PATH.length() + 1) : "";
+        if (idSegment.isEmpty() || idSegment.contains("/")) {
+            sendError(exchange, 404, "Not Found", "No resource at " + path);
+            return;
+        }
+        Long id = Long.valueOf(idSegment);
+        switch (method) {
+            case "GET" -> sendUserOrNotFound(exchange, userService.getById(id), id);
+            case "PUT" -> update(exchange, id);
+            case "DELETE" -> {
+                userService.delete(id);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> sendMethodNotAllowed(exchange, "GET, PUT, DELETE");
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        User user = userService.create(string(body, "name"), string(body, "email"), integer(body, "age"));
+
+        exchange.getResponseHeaders().set("Location", BASE_PATH + "/" + user.getId());
+        send(exchange, 201, UserJson.write(user));
+    }
+
+    private void getByEmail(HttpExchange exchange) throws IOException {
+        String email = queryParam(exchange, "email");
+        if (email == null) {
+            throw new IllegalArgumentException("Query parameter 'email' is required");
+        }
+        User user = userService.getByEmail(email);
+        if (user == null) {
+            sendError(exchange, 404, "User Not Found", "User not found with email: " + email);
+        } else {
+            send(exchange, 200, UserJson.write(user));
+        }
+    }
+
+    private void update(HttpExchange exchange, Long id) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        User user = userService.update(id, string(body, "name"), string(body, "email"), integer(body, "age"));
+        sendUserOrNotFound(exchange, user, id);
+    }
+
+    private static void sendUserOrNotFound(HttpExchange exchange, User user, Long id) throws IOException {
+        if (user == null) {
+            sendError(exchange, 404, "User Not Found", "User not found with id: " + id);
+        } else {
+            send(exchange, 200, UserJson.write(user));
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        return UserJson.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static String string(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static Integer integer(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field '" + field + "' must be an integer");
+        }
+        return number.intValue();
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (name.equals(URLDecoder.decode(key, StandardCharsets.UTF_8))) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void sendMethodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "Method Not Allowed",
+                "Request method '" + exchange.getRequestMethod() + "' is not supported");
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String error, String message)
+            throws IOException {
+        send(exchange, status, UserJson.error(LocalDateTime.now().toString(), status, error, message));
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package ru.itwizardry.userservice.http;
+
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hand-rolled JSON for the HTTP front-end: writes {@link User} in the same shape as module-4's
+ * {@code UserDto} and reads flat request objects (strings, integers, booleans and {@code null}).
+ * Nested objects, arrays and fractional numbers are rejected with {@link IllegalArgumentException}.
+ */
+public final class UserJson {
+
+    private UserJson() {
+    }
+
+    public static String write(User user) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"id\":").append(user.getId());
+        sb.append(",\"name\":");
+        appendString(sb, user.getName());
+        sb.append(",\"email\":");
+        appendString(sb, user.getEmail());
+        sb.append(",\"age\":").append(user.getAge());
+        sb.append(",\"createdDate\":");
+        appendString(sb, user.getCreatedAt() == null ? null : user.getCreatedAt().toString());
+        return sb.append('}').toString();
+    }
+
+    public static String error(String timestamp, int status, String error, String message) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"timestamp\":");
+        appendString(sb, timestamp);
+        sb.append(",\"status\":").append(status);
+        sb.append(",\"error\":");
+        appendString(sb, error);
+        sb.append(",\"message\":");
+        appendString(sb, message);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Parses a flat JSON object; values are {@link String}, {@link Long}, {@link Boolean} or {@code null}.
+     */
+    public static Map<String, Object> parseObject(String json) {
+        Parser parser = new Parser(json);
+        Map<String, Object> fields = parser.object();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected content after JSON object");
+        }
+        return fields;
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static final class Parser {
+
+        private final String s;
+        private int pos;
+
+        private Parser(String s) {
+            this.s = s;
+        }
+
+        Map<String, Object> object() {
+            skipWhitespace();
+            expect('{');
+            Map<String, Object> fields = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return fields;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (fields.containsKey(key)) {
+                    throw error("Duplicate field \"" + key + "\"");
+                }
+                fields.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return fields;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            return switch (c) {
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                case '{', '[' -> throw error("Nested JSON values are not supported");
+                default -> {
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        yield number();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+                }
+            };
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c < 0x20) {
+                    throw error("Control character in string");
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"', '\\', '/' -> sb.append(e);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) {
+                            throw error("Truncated \\u escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(s, pos, pos + 4, 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid \\u escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("Invalid escape '\\" + e + "'");
+                }
+            }
+        }
+
+        private Long number() {
+            int start = pos;
+            if (peek() == '-') {
+                pos++;
+            }
+            while (!atEnd() && Character.isDigit(s.charAt(pos))) {
+                pos++;
+            }
+            if (!atEnd() && (s.charAt(pos) == '.' || s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+                throw error("Only integer numbers are supported");
+            }
+            try {
+                return Long.parseLong(s, start, pos, 10);
+            } catch (NumberFormatException ex) {
+                throw error("Invalid number");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!s.startsWith(word, pos)) {
+                throw error("Unexpected token");
+            }
+            pos += word.length();
+            return value;
+        }
+
+        void skipWhitespace() {
+            while (!atEnd()) {
+                char c = s.charAt(pos);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw error("Unexpected end of JSON");
+            }
+            return s.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at position " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ru.itwizardry.userservice.importer;
+
+public enum DuplicateEmailPolicy {
+    SKIP,
+    UPDATE
+}
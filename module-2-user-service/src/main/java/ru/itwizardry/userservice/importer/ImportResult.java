@@ -0,0 +1,10 @@
+package ru.itwizardry.userservice.importer;
+
+public record ImportResult(
+        long rowsRead,
+        long rejected,
+        long inserted,
+        long updated,
+        long duplicates
+) {
+}
@@ -0,0 +1,341 @@
+package ru.itwizardry.userservice.importer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.csv.CsvFormat;
+import ru.itwizardry.userservice.csv.CsvRecordReader;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.service.UserValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Bulk-loads users from a CSV file with PostgreSQL {@code COPY}.
+ * <p>
+ * Rows are validated with {@link UserValidator}, valid ones are streamed into a temporary
+ * staging table and then merged into {@code users} in a single statement; invalid rows and
+ * duplicate emails are written to the rejects file. The whole import is one transaction.
+ * The CSV must have a header row containing {@code name}, {@code email} and {@code age}
+ * columns (other columns, e.g. from the export, are ignored). Quoted fields may contain commas,
+ * quotes and line breaks; values are taken verbatim, without trimming.
+ */
+public class PgCopyUserImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PgCopyUserImporter.class);
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final int NAME_MAX_LENGTH = 100;
+    private static final int EMAIL_MAX_LENGTH = 255;
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE users_import_staging (
+                line_no BIGINT NOT NULL,
+                name    TEXT   NOT NULL,
+                email   TEXT   NOT NULL,
+                age     INT    NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY users_import_staging (line_no, name, email, age) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String DUPLICATES_SQL = """
+            SELECT s.line_no, s.email,
+                   CASE WHEN s.line_no <> k.line_no
+                        THEN 'Duplicate email in file, superseded by line ' || k.line_no
+                        ELSE 'Email already exists'
+                   END
+              FROM users_import_staging s
+              JOIN (SELECT email, max(line_no) AS line_no
+                      FROM users_import_staging
+                     GROUP BY email) k ON k.email = s.email
+             WHERE s.line_no <> k.line_no
+                OR (? AND EXISTS (SELECT 1 FROM users u WHERE u.email = s.email))
+             ORDER BY s.line_no
+            """;
+
+    /*
+     * Ids come from the same pooled-lo sequence as Hibernate: every nextval() reserves
+     * a block of ID_ALLOCATION_SIZE ids starting at the returned value.
+     */
+    private static final String MERGE_SQL = """
+            WITH latest AS (
+                SELECT DISTINCT ON (email) name, email, age
+                  FROM users_import_staging
+                 ORDER BY email, line_no DESC
+            ),
+            numbered AS (
+                SELECT l.*, row_number() OVER (ORDER BY email) - 1 AS rn
+                  FROM latest l
+            ),
+            blocks AS (
+                SELECT b - 1 AS block_no, nextval('%1$s') AS lo
+                  FROM generate_series(1, ceil((SELECT count(*) FROM latest) / %2$d.0)::int) AS b
+            ),
+            merged AS (
+                INSERT INTO users (id, name, email, age, created_at)
+                SELECT b.lo + n.rn %% %2$d, n.name, n.email, n.age, now()
+                  FROM numbered n
+                  JOIN blocks b ON b.block_no = n.rn / %2$d
+                ON CONFLICT (email) DO %3$s
+                RETURNING (xmax = 0) AS inserted
+            )
+            SELECT count(*) FILTER (WHERE inserted),
+                   count(*) FILTER (WHERE NOT inserted)
+              FROM merged
+            """;
+
+    private final SessionFactory sessionFactory;
+
+    public PgCopyUserImporter(SessionFactory sessionFactory) {
+        this.sessionFactory = Objects.requireNonNull(sessionFactory, "sessionFactory");
+    }
+
+    public ImportResult importCsv(Path csv, Path rejects, DuplicateEmailPolicy policy) throws IOException {
+        Objects.requireNonNull(policy, "policy");
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8);
+             Session session = sessionFactory.openSession()) {
+
+            rejectWriter.write("line_no,reason,value");
+            rejectWriter.newLine();
+
+            Transaction tx = session.beginTransaction();
+            try {
+                ImportResult result = session.doReturningWork(
+                        connection -> load(connection, reader, rejectWriter, policy));
+                tx.commit();
+
+                if (policy == DuplicateEmailPolicy.UPDATE && result.updated() > 0) {
+                    sessionFactory.getCache().evictEntityData(User.class);
+                }
+                log.info("Imported {} from {}", result, csv);
+                return result;
+            } catch (UncheckedIOException ex) {
+                rollback(tx);
+                throw ex.getCause();
+            } catch (RuntimeException ex) {
+                rollback(tx);
+                throw ex;
+            }
+        }
+    }
+
+    private ImportResult load(Connection connection, BufferedReader reader, BufferedWriter rejects,
+                              DuplicateEmailPolicy policy) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(CREATE_STAGING_SQL);
+        }
+
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        long rowsRead;
+        long rejected;
+        try {
+            StagingWriter staging = new StagingWriter(copyIn, rejects);
+            staging.copyAll(reader);
+            copyIn.endCopy();
+            rowsRead = staging.rowsRead;
+            rejected = staging.rejected;
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE users_import_staging");
+        }
+
+        long duplicates = rejectDuplicates(connection, rejects, policy);
+
+        String onConflict = policy == DuplicateEmailPolicy.UPDATE
+                ? "UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age"
+                : "NOTHING";
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     MERGE_SQL.formatted(User.ID_SEQUENCE, User.ID_ALLOCATION_SIZE, onConflict))) {
+            rs.next();
+            return new ImportResult(rowsRead, rejected, rs.getLong(1), rs.getLong(2), duplicates);
+        }
+    }
+
+    private long rejectDuplicates(Connection connection, BufferedWriter rejects, DuplicateEmailPolicy policy)
+            throws SQLException {
+        long count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(DUPLICATES_SQL)) {
+            ps.setBoolean(1, policy == DuplicateEmailPolicy.SKIP);
+            ps.setFetchSize(COPY_BUFFER_SIZE / 256);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    writeReject(rejects, rs.getLong(1), rs.getString(3), rs.getString(2));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void rollback(Transaction tx) {
+        if (tx.isActive()) {
+            tx.rollback();
+        }
+    }
+
+    private static void writeReject(BufferedWriter rejects, long lineNo, String reason, String value) {
+        StringBuilder line = new StringBuilder();
+        line.append(lineNo).append(',');
+        CsvFormat.appendField(line, reason);
+        line.append(',');
+        CsvFormat.appendField(line, value);
+        try {
+            rejects.write(line.toString());
+            rejects.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write rejects file", e);
+        }
+    }
+
+    private static final class StagingWriter {
+
+        private final CopyIn copyIn;
+        private final BufferedWriter rejects;
+        private final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        private final StringBuilder row = new StringBuilder(256);
+        private int position;
+
+        private long rowsRead;
+        private long rejected;
+
+        private int nameColumn = -1;
+        private int emailColumn = -1;
+        private int ageColumn = -1;
+
+        StagingWriter(CopyIn copyIn, BufferedWriter rejects) {
+            this.copyIn = copyIn;
+            this.rejects = rejects;
+        }
+
+        void copyAll(BufferedReader reader) throws SQLException {
+            try {
+                CsvRecordReader records = new CsvRecordReader(reader);
+                String header = records.next();
+                if (header == null) return;
+                readHeader(header);
+
+                String record;
+                while ((record = records.next()) != null) {
+                    if (record.isBlank()) continue;
+                    rowsRead++;
+                    stage(records.recordLine(), record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read CSV", e);
+            }
+            flush();
+        }
+
+        private void readHeader(String header) {
+            List<String> columns = CsvFormat.parseLine(header);
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "name" -> nameColumn = i;
+                    case "email" -> emailColumn = i;
+                    case "age" -> ageColumn = i;
+                    default -> {
+                    }
+                }
+            }
+            if (nameColumn < 0 || emailColumn < 0 || ageColumn < 0) {
+                throw new IllegalArgumentException("CSV header must contain name, email and age columns");
+            }
+        }
+
+        private void stage(long lineNo, String line) throws SQLException {
+            String name;
+            String email;
+            Integer age;
+            try {
+                List<String> fields = CsvFormat.parseLine(line);
+                name = field(fields, nameColumn);
+                email = field(fields, emailColumn);
+                age = parseAge(field(fields, ageColumn));
+
+                UserValidator.validateName(name);
+                UserValidator.validateEmail(email);
+                UserValidator.validateAge(age);
+                if (name.length() > NAME_MAX_LENGTH) {
+                    throw new IllegalArgumentException("Name must be at most " + NAME_MAX_LENGTH + " characters");
+                }
+                if (email.length() > EMAIL_MAX_LENGTH) {
+                    throw new IllegalArgumentException("Email must be at most " + EMAIL_MAX_LENGTH + " characters");
+                }
+            } catch (IllegalArgumentException ex) {
+                rejected++;
+                writeReject(rejects, lineNo, ex.getMessage(), line);
+                return;
+            }
+
+            row.setLength(0);
+            row.append(lineNo).append(',');
+            CsvFormat.appendField(row, name);
+            row.append(',');
+            CsvFormat.appendField(row, email);
+            row.append(',').append(age).append('\n');
+            write(row.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String field(List<String> fields, int index) {
+            // no trim: the value is imported exactly as written, surrounding blanks fail validation
+            if (index >= fields.size()) return null;
+            return fields.get(index);
+        }
+
+        private static Integer parseAge(String value) {
+            if (value == null || value.isEmpty()) return null;
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Age must be a number");
+            }
+        }
+
+        private void write(byte[] bytes) throws SQLException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+            }
+            if (bytes.length > buffer.length) {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                return;
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void flush() throws SQLException {
+            if (position > 0) {
+                copyIn.writeToCopy(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
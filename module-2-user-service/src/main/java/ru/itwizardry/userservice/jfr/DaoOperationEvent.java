@@ -0,0 +1,43 @@
+package ru.itwizardry.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One {@code UserDao} call as seen by the {@code InterceptingUserDaoProxy} chain (cache included).
+ * The 20 ms default threshold keeps recordings made without {@code jfr/user-service.jfc} small;
+ * the bundled settings file lowers it.
+ */
+@Name(DaoOperationEvent.NAME)
+@Label("UserDao Operation")
+@Category({"User Service", "DAO"})
+@Description("A UserDao call with its outcome")
+@StackTrace(false)
+@Threshold("20 ms")
+public class DaoOperationEvent extends Event {
+
+    public static final String NAME = "ru.itwizardry.userservice.DaoOperation";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    @Description("Id passed to or returned by the call, 0 if none")
+    public long userId;
+
+    @Label("Rows")
+    @Description("Rows affected by writes, rows returned by reads, -1 if unknown")
+    public long rows;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Error")
+    @Description("Exception class when the call failed")
+    public String error;
+}
@@ -0,0 +1,34 @@
+package ru.itwizardry.userservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One {@code UserService} call, validation included; nests the {@link DaoOperationEvent}s it causes.
+ */
+@Name(ServiceOperationEvent.NAME)
+@Label("UserService Operation")
+@Category({"User Service", "Service"})
+@Description("A UserService call with its outcome")
+@StackTrace(false)
+@Threshold("20 ms")
+public class ServiceOperationEvent extends Event {
+
+    public static final String NAME = "ru.itwizardry.userservice.ServiceOperation";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Id")
+    @Description("Id passed to or returned by the call, 0 if none")
+    public long userId;
+
+    @Label("Outcome")
+    @Description("OK, NOT_FOUND, INVALID, CONFLICT, TIMEOUT or ERROR")
+    public String outcome;
+}
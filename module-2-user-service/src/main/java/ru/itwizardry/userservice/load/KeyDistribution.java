@@ -0,0 +1,19 @@
+package ru.itwizardry.userservice.load;
+
+public enum KeyDistribution {
+
+    UNIFORM {
+        @Override
+        public KeyGenerator generator(int keys, double zipfExponent) {
+            return new UniformKeyGenerator(keys);
+        }
+    },
+    ZIPFIAN {
+        @Override
+        public KeyGenerator generator(int keys, double zipfExponent) {
+            return new ZipfianKeyGenerator(keys, zipfExponent);
+        }
+    };
+
+    public abstract KeyGenerator generator(int keys, double zipfExponent);
+}
@@ -0,0 +1,11 @@
+package ru.itwizardry.userservice.load;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks the key (0-based index into the seeded users) of the next operation.
+ */
+public interface KeyGenerator {
+
+    int next(RandomGenerator random);
+}
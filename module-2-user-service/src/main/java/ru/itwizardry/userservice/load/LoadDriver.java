@@ -0,0 +1,162 @@
+package ru.itwizardry.userservice.load;
+
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.itwizardry.userservice.service.UserService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives {@link UserService} with a {@link WorkloadSpec} from {@code threads} virtual threads.
+ * <p>
+ * Users for all keys are upserted first, so every run starts from the same data set.
+ * With a target rate every operation gets a fixed start slot and its latency is measured
+ * from that slot, not from the moment a worker got around to it; queueing delay caused by
+ * a slow backend is therefore part of the percentiles (no coordinated omission).
+ * Operations started during warmup are executed but not recorded.
+ */
+public class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int SEED_AGE = 30;
+
+    private final UserService service;
+    private final WorkloadSpec spec;
+
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    private final Map<LoadOperation, Recorder> recorders = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+
+    public LoadDriver(UserService service, WorkloadSpec spec) {
+        this.service = Objects.requireNonNull(service, "service must not be null");
+        this.spec = Objects.requireNonNull(spec, "spec must not be null");
+
+        List<LoadOperation> ops = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<LoadOperation, Integer> e : spec.mix().entrySet()) {
+            if (e.getValue() == 0) continue;
+            total += e.getValue();
+            ops.add(e.getKey());
+            cumulative.add(total);
+            recorders.put(e.getKey(), new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+            errors.put(e.getKey(), new LongAdder());
+        }
+        this.operations = ops.toArray(LoadOperation[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public LoadReport run() {
+        LoadKeys keys = seed();
+        KeyGenerator keyGenerator = spec.keyGenerator();
+
+        log.info("Load run: {} threads, warmup {} s, duration {} s, target rate {}",
+                spec.threads(), spec.warmup().toSeconds(), spec.duration().toSeconds(),
+                spec.targetRate() == 0 ? "unlimited" : spec.targetRate() + " ops/s");
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + spec.warmup().toNanos();
+        long deadlineNanos = measureFromNanos + spec.duration().toNanos();
+        AtomicLong tickets = new AtomicLong();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < spec.threads(); i++) {
+                workers.execute(() -> work(keys, keyGenerator, tickets, startNanos, measureFromNanos, deadlineNanos));
+            }
+        }
+        Duration measured = Duration.ofNanos(Math.max(1, System.nanoTime() - measureFromNanos));
+
+        Map<LoadOperation, LoadReport.OperationResult> results = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation op : operations) {
+            results.put(op, new LoadReport.OperationResult(recorders.get(op).getIntervalHistogram(), errors.get(op).sum()));
+        }
+        return new LoadReport(spec, measured, results);
+    }
+
+    private LoadKeys seed() {
+        long[] ids = new long[spec.keys()];
+        AtomicInteger next = new AtomicInteger();
+        log.info("Seeding {} users", spec.keys());
+
+        try (ExecutorService seeders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < spec.threads(); i++) {
+                seeders.execute(() -> {
+                    int key;
+                    while ((key = next.getAndIncrement()) < ids.length) {
+                        ids[key] = service.upsert(LoadKeys.name(key), LoadKeys.email(key), SEED_AGE).getId();
+                    }
+                });
+            }
+        }
+        return new LoadKeys(ids);
+    }
+
+    private void work(LoadKeys keys, KeyGenerator keyGenerator, AtomicLong tickets,
+                      long startNanos, long measureFromNanos, long deadlineNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int rate = spec.targetRate();
+
+        while (true) {
+            long intendedStart;
+            if (rate > 0) {
+                intendedStart = startNanos + tickets.getAndIncrement() * TimeUnit.SECONDS.toNanos(1) / rate;
+                if (intendedStart >= deadlineNanos) return;
+                parkUntil(intendedStart);
+            } else {
+                intendedStart = System.nanoTime();
+                if (intendedStart >= deadlineNanos) return;
+            }
+
+            LoadOperation op = pick(random);
+            boolean failed = false;
+            try {
+                op.execute(service, keys, keyGenerator.next(random), random);
+            } catch (RuntimeException ex) {
+                failed = true;
+                log.debug("{} failed", op.specName(), ex);
+            }
+
+            if (intendedStart >= measureFromNanos) {
+                long nanos = System.nanoTime() - intendedStart;
+                recorders.get(op).recordValue(Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+                if (failed) {
+                    errors.get(op).increment();
+                }
+            }
+        }
+    }
+
+    private LoadOperation pick(ThreadLocalRandom random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) return operations[i];
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.itwizardry.userservice.load;
+
+/**
+ * Maps a key index to the seeded user: a deterministic email and the id it was stored with.
+ */
+public final class LoadKeys {
+
+    private static final String EMAIL_DOMAIN = "@load.test";
+
+    private final long[] ids;
+
+    LoadKeys(long[] ids) {
+        this.ids = ids;
+    }
+
+    public static String email(int key) {
+        return "load-" + key + EMAIL_DOMAIN;
+    }
+
+    public static String name(int key) {
+        return "Load user " + key;
+    }
+
+    public long id(int key) {
+        return ids[key];
+    }
+
+    public int size() {
+        return ids.length;
+    }
+}
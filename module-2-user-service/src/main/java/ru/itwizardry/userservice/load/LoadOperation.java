@@ -0,0 +1,66 @@
+package ru.itwizardry.userservice.load;
+
+import ru.itwizardry.userservice.service.UserService;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.random.RandomGenerator;
+
+public enum LoadOperation {
+
+    GET_BY_ID("getById") {
+        @Override
+        void execute(UserService service, LoadKeys keys, int key, RandomGenerator random) {
+            service.getById(keys.id(key));
+        }
+    },
+    GET_BY_EMAIL("getByEmail") {
+        @Override
+        void execute(UserService service, LoadKeys keys, int key, RandomGenerator random) {
+            service.getByEmail(LoadKeys.email(key));
+        }
+    },
+    UPDATE("update") {
+        @Override
+        void execute(UserService service, LoadKeys keys, int key, RandomGenerator random) {
+            service.update(keys.id(key), LoadKeys.name(key), LoadKeys.email(key), randomAge(random));
+        }
+    },
+    UPSERT("upsert") {
+        @Override
+        void execute(UserService service, LoadKeys keys, int key, RandomGenerator random) {
+            service.upsert(LoadKeys.name(key), LoadKeys.email(key), randomAge(random));
+        }
+    },
+    CREATE("create") {
+        @Override
+        void execute(UserService service, LoadKeys keys, int key, RandomGenerator random) {
+            service.create("Load new user", "load-" + UUID.randomUUID() + "@load.test", randomAge(random));
+        }
+    };
+
+    private static final int MAX_AGE = 100;
+
+    private final String specName;
+
+    LoadOperation(String specName) {
+        this.specName = specName;
+    }
+
+    public String specName() {
+        return specName;
+    }
+
+    public static LoadOperation fromSpecName(String name) {
+        return Arrays.stream(values())
+                .filter(op -> op.specName.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + name));
+    }
+
+    abstract void execute(UserService service, LoadKeys keys, int key, RandomGenerator random);
+
+    private static int randomAge(RandomGenerator random) {
+        return random.nextInt(MAX_AGE + 1);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.itwizardry.userservice.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+public record LoadReport(WorkloadSpec spec, Duration measured, Map<LoadOperation, OperationResult> results) {
+
+    private static final String ROW = "%-12s %10s %8s %10s %9s %9s %9s %9s %9s%n";
+
+    public long totalCount() {
+        return results.values().stream().mapToLong(OperationResult::count).sum();
+    }
+
+    public double throughput() {
+        return totalCount() / (measured.toNanos() / 1e9);
+    }
+
+    public void print(PrintStream out) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("Load run: %.1f s measured, %d threads, %d keys (%s), target rate %s%n",
+                seconds, spec.threads(), spec.keys(), spec.distribution().name().toLowerCase(Locale.ROOT),
+                spec.targetRate() == 0 ? "unlimited" : spec.targetRate() + " ops/s");
+        out.printf(ROW, "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        results.forEach((op, r) -> {
+            Histogram h = r.histogram();
+            out.printf(ROW, op.specName(), r.count(), r.errors(), format(r.count() / seconds),
+                    millis(h.getValueAtPercentile(50.0)), millis(h.getValueAtPercentile(90.0)),
+                    millis(h.getValueAtPercentile(99.0)), millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        });
+        out.printf("total: %d operations, %s ops/s%n", totalCount(), format(throughput()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+
+    public record OperationResult(Histogram histogram, long errors) {
+
+        public long count() {
+            return histogram.getTotalCount();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.itwizardry.userservice.load;
+
+import java.util.random.RandomGenerator;
+
+public class UniformKeyGenerator implements KeyGenerator {
+
+    private final int keys;
+
+    public UniformKeyGenerator(int keys) {
+        if (keys <= 0) {
+            throw new IllegalArgumentException("keys must be positive");
+        }
+        this.keys = keys;
+    }
+
+    @Override
+    public int next(RandomGenerator random) {
+        return random.nextInt(keys);
+    }
+}
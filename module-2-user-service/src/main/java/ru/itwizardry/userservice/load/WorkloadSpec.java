@@ -0,0 +1,114 @@
+package ru.itwizardry.userservice.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Load-driver workload, read from a properties file:
+ * <pre>
+ * mix=getById:70,getByEmail:10,update:15,upsert:5
+ * distribution=zipfian
+ * zipfian.exponent=0.99
+ * keys=10000
+ * threads=64
+ * duration.seconds=60
+ * warmup.seconds=10
+ * rate=5000
+ * </pre>
+ * {@code mix} weights are relative, {@code rate} is the target number of operations per second
+ * over all threads ({@code 0} means as fast as possible).
+ */
+public record WorkloadSpec(
+        Map<LoadOperation, Integer> mix,
+        KeyDistribution distribution,
+        double zipfianExponent,
+        int keys,
+        int threads,
+        Duration duration,
+        Duration warmup,
+        int targetRate
+) {
+
+    private static final double DEFAULT_ZIPFIAN_EXPONENT = 0.99;
+
+    public WorkloadSpec {
+        Objects.requireNonNull(mix, "mix must not be null");
+        Objects.requireNonNull(distribution, "distribution must not be null");
+        Objects.requireNonNull(duration, "duration must not be null");
+        Objects.requireNonNull(warmup, "warmup must not be null");
+        if (mix.isEmpty() || mix.values().stream().anyMatch(w -> w == null || w < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("mix must contain at least one positive weight");
+        }
+        if (keys <= 0) {
+            throw new IllegalArgumentException("keys must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+        if (warmup.isNegative()) {
+            throw new IllegalArgumentException("warmup must not be negative");
+        }
+        if (targetRate < 0) {
+            throw new IllegalArgumentException("rate must not be negative");
+        }
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+    }
+
+    public static WorkloadSpec load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+        }
+        return fromProperties(props);
+    }
+
+    public static WorkloadSpec fromProperties(Properties props) {
+        return new WorkloadSpec(
+                parseMix(required(props, "mix")),
+                KeyDistribution.valueOf(props.getProperty("distribution", "uniform").trim().toUpperCase(Locale.ROOT)),
+                Double.parseDouble(props.getProperty("zipfian.exponent", String.valueOf(DEFAULT_ZIPFIAN_EXPONENT))),
+                Integer.parseInt(required(props, "keys")),
+                Integer.parseInt(props.getProperty("threads", "16").trim()),
+                Duration.ofSeconds(Long.parseLong(required(props, "duration.seconds"))),
+                Duration.ofSeconds(Long.parseLong(props.getProperty("warmup.seconds", "0").trim())),
+                Integer.parseInt(props.getProperty("rate", "0").trim())
+        );
+    }
+
+    public KeyGenerator keyGenerator() {
+        return distribution.generator(keys, zipfianExponent);
+    }
+
+    static Map<LoadOperation, Integer> parseMix(String value) {
+        Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part.trim());
+            }
+            mix.merge(LoadOperation.fromSpecName(kv[0].trim()), Integer.parseInt(kv[1].trim()), Integer::sum);
+        }
+        return mix;
+    }
+
+    private static String required(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Workload property '" + key + "' is required");
+        }
+        return value.trim();
+    }
+}
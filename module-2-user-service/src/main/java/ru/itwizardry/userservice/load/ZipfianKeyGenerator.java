@@ -0,0 +1,55 @@
+package ru.itwizardry.userservice.load;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipfian key popularity (Gray et al., "Quickly Generating Billion-Record Synthetic Databases"),
+ * the same generator YCSB uses: key 0 is the hottest, key {@code i} is drawn with
+ * probability proportional to {@code 1 / (i + 1)^exponent}.
+ */
+public class ZipfianKeyGenerator implements KeyGenerator {
+
+    private final int keys;
+    private final double exponent;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final double halfPowExponent;
+
+    public ZipfianKeyGenerator(int keys, double exponent) {
+        if (keys <= 0) {
+            throw new IllegalArgumentException("keys must be positive");
+        }
+        if (exponent <= 0 || exponent >= 1) {
+            throw new IllegalArgumentException("zipfian exponent must be in (0, 1)");
+        }
+        this.keys = keys;
+        this.exponent = exponent;
+        this.alpha = 1.0 / (1.0 - exponent);
+        this.zetaN = zeta(keys, exponent);
+        this.eta = (1 - Math.pow(2.0 / keys, 1 - exponent)) / (1 - zeta(2, exponent) / zetaN);
+        this.halfPowExponent = Math.pow(0.5, exponent);
+    }
+
+    @Override
+    public int next(RandomGenerator random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) return 0;
+        if (uz < 1.0 + halfPowExponent) return Math.min(1, keys - 1);
+        int key = (int) (keys * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(key, keys - 1);
+    }
+
+    public double exponent() {
+        return exponent;
+    }
+
+    private static double zeta(int n, double exponent) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, exponent);
+        }
+        return sum;
+    }
+}
@@ -2,10 +2,14 @@ package ru.itwizardry.userservice.service;
 
 import ru.itwizardry.userservice.entity.User;
 
+import java.util.function.Consumer;
+
 public interface UserService {
     User create(String name, String email, Integer age);
     User getById(Long id);
     User getByEmail(String email);
     User update(Long id, String name, String email, Integer age);
+    User upsert(String name, String email, Integer age);
     void delete(Long id);
+    long exportAll(Consumer<User> consumer);
 }
\ No newline at end of file
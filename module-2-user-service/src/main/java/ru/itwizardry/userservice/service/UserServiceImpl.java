@@ -1,9 +1,14 @@
 package ru.itwizardry.userservice.service;
 
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
 import ru.itwizardry.userservice.dao.UserDao;
 import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.jfr.ServiceOperationEvent;
 
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class UserServiceImpl implements UserService {
 
@@ -15,92 +20,142 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User create(String name, String email, Integer age) {
-        validateName(name);
-        validateEmail(email);
-        validateAge(age);
-
-        User user = newUser(name, email, age);
-
-        try {
-            return userDao.save(user);
-        } catch (RuntimeException ex) {
-            if (isUniqueViolation(ex)) {
-                throw new IllegalStateException("Email already exists: " + email);
+        return recorded("create", null, () -> {
+            UserValidator.validateName(name);
+            UserValidator.validateEmail(email);
+            UserValidator.validateAge(age);
+
+            User user = newUser(name, email, age);
+
+            try {
+                return userDao.save(user);
+            } catch (RuntimeException ex) {
+                if (isUniqueViolation(ex)) {
+                    throw new DuplicateEmailException("Email already exists: " + email, ex);
+                }
+                throw ex;
             }
-            throw ex;
-        }
+        });
     }
 
     @Override
     public User getById(Long id) {
-        if (id == null) {
-            throw new IllegalArgumentException("Id cannot be null");
-        }
-        return userDao.findById(id).orElse(null);
+        return recorded("getById", id, () -> {
+            if (id == null) {
+                throw new IllegalArgumentException("Id cannot be null");
+            }
+            return userDao.findById(id).orElse(null);
+        });
     }
 
     @Override
     public User getByEmail(String email) {
-        validateEmail(email);
-        return userDao.findByEmail(email).orElse(null);
+        return recorded("getByEmail", null, () -> {
+            UserValidator.validateEmail(email);
+            return userDao.findByEmail(email).orElse(null);
+        });
     }
 
     @Override
     public User update(Long id, String name, String email, Integer age) {
-        if (id == null) throw new IllegalArgumentException("Id cannot be null");
-        validateName(name);
-        validateEmail(email);
-        validateAge(age);
-
-
-        try {
-            int updated = userDao.updateById(id, name, email, age);
-            if (updated == 0) return null;
-            return userDao.findById(id).orElse(null);
-        } catch (RuntimeException ex) {
-            if (isUniqueViolation(ex)) {
-                throw new IllegalStateException("Email already exists: " + email);
+        return recorded("update", id, () -> {
+            if (id == null) throw new IllegalArgumentException("Id cannot be null");
+            UserValidator.validateName(name);
+            UserValidator.validateEmail(email);
+            UserValidator.validateAge(age);
+
+
+            try {
+                return userDao.updateReturning(id, name, email, age).orElse(null);
+            } catch (RuntimeException ex) {
+                if (isUniqueViolation(ex)) {
+                    throw new DuplicateEmailException("Email already exists: " + email, ex);
+                }
+                throw ex;
             }
-            throw ex;
-        }
+        });
+    }
+
+    @Override
+    public User upsert(String name, String email, Integer age) {
+        return recorded("upsert", null, () -> {
+            UserValidator.validateName(name);
+            UserValidator.validateEmail(email);
+            UserValidator.validateAge(age);
+
+            return userDao.upsertByEmail(name, email, age);
+        });
     }
 
     @Override
     public void delete(Long id) {
-        if (id == null) {
-            throw new IllegalArgumentException("Id cannot be null");
-        }
-        userDao.delete(id);
+        recorded("delete", id, () -> {
+            if (id == null) {
+                throw new IllegalArgumentException("Id cannot be null");
+            }
+            return userDao.delete(id);
+        });
     }
 
-    private static User newUser(String name, String email, Integer age) {
-        return new User(name, email, age);
+    @Override
+    public long exportAll(Consumer<User> consumer) {
+        return recorded("exportAll", null, () -> {
+            if (consumer == null) {
+                throw new IllegalArgumentException("Consumer cannot be null");
+            }
+            return userDao.streamAll(consumer);
+        });
     }
 
-    private static void validateName(String name) {
-        if (name == null || name.isBlank()) {
-            throw new IllegalArgumentException("Name cannot be null or blank");
+    /**
+     * Runs {@code call} inside a {@link ServiceOperationEvent}; a {@code null} result counts as NOT_FOUND.
+     */
+    private static <T> T recorded(String operation, Long id, Supplier<T> call) {
+        ServiceOperationEvent event = new ServiceOperationEvent();
+        if (!event.isEnabled()) {
+            return call.get();
         }
-    }
 
-    private static void validateEmail(String email) {
-        if (email == null || email.isBlank()) {
-            throw new IllegalArgumentException("Email cannot be null or blank");
+        event.begin();
+        T result = null;
+        String outcome = "ERROR";
+        try {
+            result = call.get();
+            outcome = result == null ? "NOT_FOUND" : "OK";
+            return result;
+        } catch (IllegalArgumentException ex) {
+            outcome = "INVALID";
+            throw ex;
+        } catch (DuplicateEmailException ex) {
+            outcome = "CONFLICT";
+            throw ex;
+        } catch (DaoTimeoutException ex) {
+            outcome = "TIMEOUT";
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.userId = id != null ? id
+                        : result instanceof User user && user.getId() != null ? user.getId()
+                        : 0;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
 
-    private static void validateAge(Integer age) {
-        if (age == null) {
-            throw new IllegalArgumentException("Age cannot be null");
-        }
-        if (age < 0 || age > 150) {
-            throw new IllegalArgumentException("Age must be between 0 and 150");
-        }
+    private static User newUser(String name, String email, Integer age) {
+        return new User(name, email, age);
     }
 
+    // DAOs translate unique violations themselves; the SQLState check covers those that don't
     private static boolean isUniqueViolation(Throwable ex) {
         Throwable t = ex;
         while (t != null) {
+            if (t instanceof DuplicateEmailException) {
+                return true;
+            }
             if (t instanceof org.hibernate.exception.ConstraintViolationException h) {
                 return "23505".equals(h.getSQLState());
             }
@@ -0,0 +1,28 @@
+package ru.itwizardry.userservice.service;
+
+public final class UserValidator {
+
+    private UserValidator() {
+    }
+
+    public static void validateName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name cannot be null or blank");
+        }
+    }
+
+    public static void validateEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email cannot be null or blank");
+        }
+    }
+
+    public static void validateAge(Integer age) {
+        if (age == null) {
+            throw new IllegalArgumentException("Age cannot be null");
+        }
+        if (age < 0 || age > 150) {
+            throw new IllegalArgumentException("Age must be between 0 and 150");
+        }
+    }
+}
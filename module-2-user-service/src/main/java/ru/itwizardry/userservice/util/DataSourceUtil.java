@@ -0,0 +1,65 @@
+package ru.itwizardry.userservice.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pooled {@link javax.sql.DataSource} for {@code JdbcUserDao}.
+ * <p>
+ * The PostgreSQL driver is told to use a server-side prepared statement from the first execution
+ * ({@code prepareThreshold=1}) and to keep up to {@value #STATEMENT_CACHE_SIZE} of them per connection,
+ * so a DAO that re-prepares the same SQL on a pooled connection skips parsing and planning.
+ */
+public final class DataSourceUtil {
+
+    private static final int STATEMENT_CACHE_SIZE = 256;
+
+    private DataSourceUtil() {
+    }
+
+    /**
+     * Builds a pool from the same {@code POSTGRES_*} variables as {@link HibernateUtil}.
+     */
+    public static HikariDataSource createDataSourceFromEnv() {
+        String host = env("POSTGRES_HOST", "localhost");
+        String port = env("POSTGRES_PORT", "5432");
+        String db = env("POSTGRES_DB", "user_service");
+        String user = requireEnv("POSTGRES_USER");
+        String pass = requireEnv("POSTGRES_PASSWORD");
+        int poolSize = Integer.parseInt(env("POSTGRES_POOL_SIZE", "10"));
+
+        return createDataSource("jdbc:postgresql://" + host + ":" + port + "/" + db, user, pass, poolSize);
+    }
+
+    public static HikariDataSource createDataSource(String jdbcUrl, String user, String password, int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be > 0");
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("user-dao-jdbc");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setAutoCommit(true);
+
+        config.addDataSourceProperty("prepareThreshold", 1);
+        config.addDataSourceProperty("preparedStatementCacheQueries", STATEMENT_CACHE_SIZE);
+
+        return new HikariDataSource(config);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value == null || value.isBlank()) ? defaultValue : value;
+    }
+
+    private static String requireEnv(String name) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing required env variable: " + name);
+        }
+        return value;
+    }
+}
@@ -12,14 +12,14 @@ import java.util.Map;
 
 public final class HibernateUtil {
 
+    private static final int POOL_SIZE = Integer.parseInt(env("POSTGRES_POOL_SIZE", "10"));
+
     private static final SessionFactory SESSION_FACTORY = buildSessionFactory();
 
     private HibernateUtil() {
     }
 
     private static SessionFactory buildSessionFactory() {
-        StandardServiceRegistry registry = null;
-
         try {
             String host = env("POSTGRES_HOST", "localhost");
             String port = env("POSTGRES_PORT", "5432");
@@ -27,12 +27,45 @@ public final class HibernateUtil {
             String user = requireEnv("POSTGRES_USER");
             String pass = requireEnv("POSTGRES_PASSWORD");
 
+            return createSessionFactory("jdbc:postgresql://" + host + ":" + port + "/" + db, user, pass, "");
+        } catch (Exception e) {
+            ExceptionInInitializerError err =
+                    new ExceptionInInitializerError("Initial SessionFactory creation failed");
+            err.initCause(e);
+            throw err;
+        }
+    }
+
+    /**
+     * Builds an additional SessionFactory, e.g. for a shard. {@code cacheRegionPrefix} keeps its
+     * second-level cache regions apart from those of other factories.
+     */
+    public static SessionFactory createSessionFactory(String jdbcUrl, String user, String password,
+                                                      String cacheRegionPrefix) {
+        StandardServiceRegistry registry = null;
+
+        try {
             Map<String, Object> settings = new HashMap<>();
             settings.put("hibernate.connection.driver_class", "org.postgresql.Driver");
-            settings.put("hibernate.connection.url",
-                    "jdbc:postgresql://" + host + ":" + port + "/" + db);
+            settings.put("hibernate.connection.url", jdbcUrl);
             settings.put("hibernate.connection.username", user);
-            settings.put("hibernate.connection.password", pass);
+            settings.put("hibernate.connection.password", password);
+            settings.put("hibernate.connection.pool_size", POOL_SIZE);
+
+            settings.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+            settings.put("hibernate.jdbc.batch_size", User.ID_ALLOCATION_SIZE);
+            settings.put("hibernate.order_inserts", "true");
+            settings.put("hibernate.order_updates", "true");
+
+            settings.put("hibernate.cache.use_second_level_cache", "true");
+            settings.put("hibernate.cache.region.factory_class", "jcache");
+            settings.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            // bounded regions; anything not listed there is created from its default template
+            settings.put("hibernate.javax.cache.uri", "classpath:ehcache.xml");
+            settings.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            if (!cacheRegionPrefix.isEmpty()) {
+                settings.put("hibernate.cache.region_prefix", cacheRegionPrefix);
+            }
 
             registry = new StandardServiceRegistryBuilder()
                     .applySettings(settings)
@@ -44,14 +77,11 @@ public final class HibernateUtil {
 
             return metadata.buildSessionFactory();
 
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             if (registry != null) {
                 StandardServiceRegistryBuilder.destroy(registry);
             }
-            ExceptionInInitializerError err =
-                    new ExceptionInInitializerError("Initial SessionFactory creation failed");
-            err.initCause(e);
-            throw err;
+            throw e;
         }
     }
 
@@ -72,6 +102,10 @@ public final class HibernateUtil {
         return SESSION_FACTORY;
     }
 
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
     public static void shutdown() {
         SESSION_FACTORY.close();
     }
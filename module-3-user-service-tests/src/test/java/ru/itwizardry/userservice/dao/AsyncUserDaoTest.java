@@ -0,0 +1,114 @@
+package ru.itwizardry.userservice.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AsyncUserDao (unit)")
+class AsyncUserDaoTest {
+
+    private static final int MAX_CONCURRENCY = 4;
+    private static final int LOOKUPS = 200;
+
+    @Mock
+    private UserDao target;
+
+    @Test
+    @DisplayName("findAllById(): fans out, never exceeds maxConcurrency")
+    void findAllById_respectsConcurrencyCap() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+
+        when(target.findById(anyLong())).thenAnswer(inv -> {
+            int now = inFlight.incrementAndGet();
+            maxSeen.accumulateAndGet(now, Math::max);
+            Thread.sleep(2);
+            inFlight.decrementAndGet();
+            return Optional.of(new User("User", inv.getArgument(0) + "@test.com", 10));
+        });
+
+        List<Long> ids = LongStream.rangeClosed(1, LOOKUPS).boxed().toList();
+
+        try (AsyncUserDao async = new AsyncUserDao(target, MAX_CONCURRENCY)) {
+            List<User> users = async.findAllById(ids).join();
+
+            assertEquals(LOOKUPS, users.size());
+            assertTrue(maxSeen.get() <= MAX_CONCURRENCY,
+                    "At most " + MAX_CONCURRENCY + " calls in flight, but was " + maxSeen.get());
+        }
+        verify(target, times(LOOKUPS)).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("delete(): DAO exception completes future exceptionally")
+    void delete_daoThrows_completesExceptionally() {
+        RuntimeException boom = new RuntimeException("boom");
+        when(target.delete(1L)).thenThrow(boom);
+
+        try (AsyncUserDao async = new AsyncUserDao(target, MAX_CONCURRENCY)) {
+            CompletionException ex = assertThrows(CompletionException.class, () -> async.delete(1L).join());
+            assertSame(boom, ex.getCause());
+        }
+    }
+
+    @Test
+    void constructor_nonPositiveConcurrency_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncUserDao(target, 0));
+    }
+
+    @Test
+    @DisplayName("caller's deadline is bound on the thread that runs the delegate")
+    void deadline_propagatedToDelegate() {
+        when(target.findById(1L)).thenAnswer(inv -> {
+            assertTrue(Deadline.current().isPresent(), "Deadline must be bound on the worker thread");
+            return Optional.empty();
+        });
+
+        try (AsyncUserDao async = new AsyncUserDao(target, MAX_CONCURRENCY);
+             Deadline.Scope ignored = Deadline.within(Duration.ofSeconds(5))) {
+            assertTrue(async.findById(1L).join().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("expired deadline fails while waiting for a permit")
+    void deadline_expiredWhileWaiting_timesOut() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(target.findById(1L)).thenAnswer(inv -> {
+            release.await();
+            return Optional.empty();
+        });
+
+        try (AsyncUserDao async = new AsyncUserDao(target, 1)) {
+            CompletableFuture<Optional<User>> blocker = async.findById(1L);
+
+            CompletableFuture<Optional<User>> late;
+            try (Deadline.Scope ignored = Deadline.within(Duration.ofMillis(50))) {
+                late = async.findById(2L);
+            }
+
+            CompletionException ex = assertThrows(CompletionException.class, late::join);
+            assertInstanceOf(DaoTimeoutException.class, ex.getCause());
+
+            release.countDown();
+            blocker.join();
+        }
+        verify(target, never()).findById(2L);
+    }
+}
@@ -0,0 +1,214 @@
+package ru.itwizardry.userservice.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.util.DataSourceUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput and p99 of {@link UserDaoImpl} operations through {@link TransactionalUserDaoProxy},
+ * for every combination of dataset size and thread count, compared with a JSON baseline.
+ * <p>
+ * Run with {@code ./gradlew :module-3-user-service-tests:perfTest}. The baseline lives in
+ * {@code perf/dao-baseline.json}; without it the suite fails. {@code -Pperf.record=true}
+ * (or {@code -Dperf.record=true}) records it instead of comparing: record it on the CI runner
+ * that executes the suite and commit it, numbers from another machine are meaningless. Every run writes its own numbers to {@code build/perf/dao-results.json}.
+ */
+@Tag("perf")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("UserDaoImpl via TransactionalUserDaoProxy: throughput / p99 regression suite")
+class DaoPerformanceRegressionIT {
+
+    private static final int[] DATASET_SIZES = {1_000, 100_000};
+    private static final int[] THREAD_COUNTS = {1, 8};
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+    private static final Duration MEASURED = Duration.ofSeconds(5);
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Path BASELINE = Path.of(System.getProperty("perf.baseline", "perf/dao-baseline.json"));
+    private static final Path RESULTS = Path.of(System.getProperty("perf.results", "build/perf/dao-results.json"));
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("perf.tolerance", "0.25"));
+    private static final boolean RECORD = Boolean.getBoolean("perf.record");
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+    private TransactionalUserDaoProxy dao;
+    private final AtomicLong inserted = new AtomicLong();
+
+    @BeforeAll
+    void setUp() {
+        int poolSize = THREAD_COUNTS[THREAD_COUNTS.length - 1];
+        dataSource = DataSourceUtil.createDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), poolSize);
+
+        // the second-level cache is off so that every call reaches the database
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        dao = new TransactionalUserDaoProxy(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+        if (dataSource != null) dataSource.close();
+    }
+
+    @Test
+    @DisplayName("no operation is slower than the baseline beyond the tolerance")
+    void daoOperations_withinBaselineTolerance() throws SQLException {
+        assertTrue(RECORD || Files.exists(BASELINE), () -> "No baseline at " + BASELINE.toAbsolutePath()
+                + "; record one with -Pperf.record=true and commit it");
+        PerfBaseline current = new PerfBaseline();
+
+        for (int size : DATASET_SIZES) {
+            seed(size);
+            for (int threads : THREAD_COUNTS) {
+                for (Operation op : Operation.values()) {
+                    String scenario = op.methodName + "/users=" + size + "/threads=" + threads;
+                    PerfBaseline.Metrics metrics = measure(op, size, threads);
+                    current.put(scenario, metrics);
+                    System.out.printf("%-36s %,9d ops/s   p99 %,7d us%n",
+                            scenario, metrics.throughputOps(), metrics.p99Micros());
+                }
+            }
+        }
+        current.write(RESULTS);
+
+        if (RECORD) {
+            current.write(BASELINE);
+            System.out.println("Baseline recorded in " + BASELINE.toAbsolutePath());
+            return;
+        }
+
+        List<String> regressions = current.regressionsAgainst(PerfBaseline.read(BASELINE), TOLERANCE);
+        assertTrue(regressions.isEmpty(), () -> "Regressions beyond " + Math.round(TOLERANCE * 100)
+                + "% of " + BASELINE + ":\n" + String.join("\n", regressions));
+    }
+
+    private PerfBaseline.Metrics measure(Operation op, int size, int threads) {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        LongAdder errors = new LongAdder();
+
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long deadline = measureFrom + MEASURED.toNanos();
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                workers.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long start;
+                    while ((start = System.nanoTime()) < deadline) {
+                        try {
+                            call(op, 1 + random.nextInt(size));
+                        } catch (RuntimeException ex) {
+                            errors.increment();
+                        }
+                        if (start >= measureFrom) {
+                            recorder.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE_NANOS));
+                        }
+                    }
+                });
+            }
+        }
+
+        assertEquals(0, errors.sum(), op.methodName + " failed during the run");
+        Histogram histogram = recorder.getIntervalHistogram();
+        long throughput = Math.round(histogram.getTotalCount() / (MEASURED.toNanos() / 1e9));
+        long p99Micros = TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99.0));
+        return new PerfBaseline.Metrics(throughput, p99Micros);
+    }
+
+    private void call(Operation op, long id) {
+        switch (op) {
+            case FIND_BY_ID -> dao.findById(id).orElseThrow();
+            case FIND_BY_EMAIL -> dao.findByEmail(email(id)).orElseThrow();
+            case UPDATE_BY_ID -> {
+                if (dao.updateById(id, "Updated" + id, email(id), 30) != 1) {
+                    throw new IllegalStateException("User " + id + " was not updated");
+                }
+            }
+            case SAVE -> dao.save(new User("Inserted", "inserted" + inserted.incrementAndGet() + "@perf.test", 30));
+        }
+    }
+
+    /**
+     * Replaces the table contents with users {@code 1..size} in one statement; far faster than
+     * going through the DAO, and the data set is identical on every run.
+     */
+    private void seed(int size) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE TABLE users");
+            st.execute("INSERT INTO users (id, name, email, age, created_at) "
+                    + "SELECT g, 'User' || g, 'user' || g || '@perf.test', 20 + g % 50, now() "
+                    + "FROM generate_series(1, " + size + ") g");
+            st.execute("SELECT setval('" + User.ID_SEQUENCE + "', " + (size + 1) + ", false)");
+            st.execute("ANALYZE users");
+        }
+    }
+
+    private static String email(long id) {
+        return "user" + id + "@perf.test";
+    }
+
+    private enum Operation {
+        FIND_BY_ID("findById"),
+        FIND_BY_EMAIL("findByEmail"),
+        UPDATE_BY_ID("updateById"),
+        SAVE("save");
+
+        private final String methodName;
+
+        Operation(String methodName) {
+            this.methodName = methodName;
+        }
+    }
+}
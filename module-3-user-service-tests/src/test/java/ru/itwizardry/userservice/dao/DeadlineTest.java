@@ -0,0 +1,53 @@
+package ru.itwizardry.userservice.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Deadline (unit)")
+class DeadlineTest {
+
+    @AfterEach
+    void noDeadlineLeaks() {
+        assertTrue(Deadline.current().isEmpty(), "Deadline must be unbound after the scope");
+    }
+
+    @Test
+    @DisplayName("within() binds the deadline until the scope is closed")
+    void within_bindsForScope() {
+        try (Deadline.Scope ignored = Deadline.within(Duration.ofSeconds(1))) {
+            Deadline current = Deadline.current().orElseThrow();
+            assertFalse(current.isExpired());
+            assertTrue(current.remainingMillis() <= 1_000);
+        }
+    }
+
+    @Test
+    @DisplayName("nested scope cannot extend the outer deadline")
+    void nested_keepsEarlierDeadline() {
+        try (Deadline.Scope outer = Deadline.within(Duration.ofMillis(100))) {
+            Deadline outerDeadline = Deadline.current().orElseThrow();
+
+            try (Deadline.Scope inner = Deadline.within(Duration.ofMinutes(1))) {
+                assertSame(outerDeadline, Deadline.current().orElseThrow());
+            }
+            try (Deadline.Scope inner = Deadline.within(Duration.ofMillis(10))) {
+                assertNotSame(outerDeadline, Deadline.current().orElseThrow());
+            }
+            assertSame(outerDeadline, Deadline.current().orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("zero timeout is expired immediately")
+    void zeroTimeout_isExpired() {
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remainingMillis());
+    }
+}
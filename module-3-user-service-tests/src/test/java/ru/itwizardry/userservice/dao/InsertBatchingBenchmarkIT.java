@@ -0,0 +1,148 @@
+package ru.itwizardry.userservice.dao;
+
+import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Bulk insert: IDENTITY vs pooled-lo SEQUENCE (benchmark)")
+class InsertBatchingBenchmarkIT {
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP_ROWS = 2_000;
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+        settings.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        settings.put("hibernate.jdbc.batch_size", User.ID_ALLOCATION_SIZE);
+        settings.put("hibernate.order_inserts", "true");
+        settings.put(AvailableSettings.GENERATE_STATISTICS, "true");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(IdentityUser.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("pooled-lo sequence batches inserts and takes one nextval per block")
+    void bulkInsert_identityVsPooledSequence() {
+        insert(WARMUP_ROWS, i -> new IdentityUser("w" + i, "wi" + i + "@test.com", 20));
+        insert(WARMUP_ROWS, i -> new User("w" + i, "ws" + i + "@test.com", 20));
+
+        Statistics statistics = sessionFactory.getStatistics();
+
+        statistics.clear();
+        long identityNanos = insert(ROWS, i -> new IdentityUser("u" + i, "i" + i + "@test.com", 20));
+        long identityStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long sequenceNanos = insert(ROWS, i -> new User("u" + i, "s" + i + "@test.com", 20));
+        long sequenceStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("IDENTITY:          %,d rows in %,d ms (%,.0f rows/s), %,d statements%n",
+                ROWS, identityNanos / 1_000_000, ROWS * 1e9 / identityNanos, identityStatements);
+        System.out.printf("SEQUENCE pooled-lo: %,d rows in %,d ms (%,.0f rows/s), %,d statements%n",
+                ROWS, sequenceNanos / 1_000_000, ROWS * 1e9 / sequenceNanos, sequenceStatements);
+
+        // IDENTITY needs the generated key of every row, so Hibernate cannot batch it
+        assertTrue(identityStatements >= ROWS, "IDENTITY inserts are expected one statement per row");
+        // per block of ID_ALLOCATION_SIZE rows: one nextval and one batched INSERT
+        long blocks = ROWS / User.ID_ALLOCATION_SIZE;
+        assertTrue(sequenceStatements <= 2 * blocks + 2,
+                "Inserts must be sent as JDBC batches: " + sequenceStatements + " statements for " + ROWS + " rows");
+
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(ROWS + WARMUP_ROWS,
+                    session.createQuery("select count(u) from User u", Long.class).getSingleResult());
+
+            long lastValue = session.createNativeQuery("SELECT last_value FROM " + User.ID_SEQUENCE, Long.class)
+                    .getSingleResult();
+            assertTrue(lastValue <= ROWS + WARMUP_ROWS + User.ID_ALLOCATION_SIZE,
+                    "Sequence must advance once per block, not once per row");
+        }
+    }
+
+    private long insert(int rows, IntFunction<Object> factory) {
+        long start = System.nanoTime();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < rows; i++) {
+                session.persist(factory.apply(i));
+                if ((i + 1) % User.ID_ALLOCATION_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Entity
+    @Table(name = "users_identity")
+    static class IdentityUser {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String name;
+
+        @Column(unique = true)
+        private String email;
+
+        private Integer age;
+
+        protected IdentityUser() {
+        }
+
+        IdentityUser(String name, String email, Integer age) {
+            this.name = name;
+            this.email = email;
+            this.age = age;
+        }
+    }
+}
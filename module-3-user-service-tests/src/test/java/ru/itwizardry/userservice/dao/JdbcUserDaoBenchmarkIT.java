@@ -0,0 +1,125 @@
+package ru.itwizardry.userservice.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.util.DataSourceUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Point reads: JdbcUserDao vs Hibernate TransactionalUserDaoProxy (benchmark)")
+class JdbcUserDaoBenchmarkIT {
+
+    private static final int USERS = 1_000;
+    private static final int WARMUP_CALLS = 5_000;
+    private static final int MEASURED_CALLS = 20_000;
+    private static final int POOL_SIZE = 4;
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private HikariDataSource dataSource;
+    private SessionFactory sessionFactory;
+    private JdbcUserDao jdbc;
+    private TransactionalUserDaoProxy hibernate;
+    private long[] ids;
+
+    @BeforeAll
+    void setUp() {
+        dataSource = DataSourceUtil.createDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), POOL_SIZE);
+
+        // both DAOs share the pool and the driver's statement cache, so only the ORM path differs;
+        // the second-level cache is off so that Hibernate really queries the database
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        jdbc = new JdbcUserDao(dataSource);
+        hibernate = new TransactionalUserDaoProxy(sessionFactory);
+
+        ids = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            ids[i] = jdbc.save(new User("User" + i, "user" + i + "@test.com", 20 + i % 50)).getId();
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+        if (dataSource != null) dataSource.close();
+    }
+
+    @Test
+    @DisplayName("findById and findByEmail latency, plain JDBC vs Hibernate")
+    void pointReads_jdbcVsHibernate() {
+        List<Run> runs = List.of(
+                new Run("Hibernate findById   ", i -> hibernate.findById(ids[i % USERS])),
+                new Run("JDBC      findById   ", i -> jdbc.findById(ids[i % USERS])),
+                new Run("Hibernate findByEmail", i -> hibernate.findByEmail("user" + i % USERS + "@test.com")),
+                new Run("JDBC      findByEmail", i -> jdbc.findByEmail("user" + i % USERS + "@test.com"))
+        );
+
+        for (Run run : runs) {
+            measure(run.call(), WARMUP_CALLS);
+        }
+        for (Run run : runs) {
+            long[] nanos = measure(run.call(), MEASURED_CALLS);
+            Arrays.sort(nanos);
+            System.out.printf("%s: p50 %,6d us, p99 %,6d us, mean %,6d us%n", run.name(),
+                    percentile(nanos, 0.50) / 1_000, percentile(nanos, 0.99) / 1_000,
+                    Arrays.stream(nanos).sum() / nanos.length / 1_000);
+        }
+
+        User viaJdbc = jdbc.findById(ids[42]).orElseThrow();
+        User viaHibernate = hibernate.findById(ids[42]).orElseThrow();
+        assertEquals(viaHibernate.getEmail(), viaJdbc.getEmail());
+        assertEquals(viaHibernate.getCreatedAt(), viaJdbc.getCreatedAt());
+    }
+
+    private static long[] measure(IntConsumer call, int calls) {
+        long[] nanos = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            call.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+
+    private record Run(String name, IntConsumer call) {
+    }
+}
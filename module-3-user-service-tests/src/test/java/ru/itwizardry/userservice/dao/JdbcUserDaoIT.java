@@ -0,0 +1,180 @@
+package ru.itwizardry.userservice.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.util.DataSourceUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("JdbcUserDao IT (plain JDBC + PostgreSQL Testcontainers)")
+class JdbcUserDaoIT {
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private HikariDataSource dataSource;
+    private JdbcUserDao dao;
+
+    @BeforeAll
+    void setUp() {
+        // Hibernate only creates the schema; all calls under test go through JDBC
+        sessionFactory = buildSessionFactory();
+        dataSource = DataSourceUtil.createDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), 4);
+        dao = new JdbcUserDao(dataSource);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (dataSource != null) dataSource.close();
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    @DisplayName("save assigns id and createdAt; rows read back through Hibernate are identical")
+    void save_thenFind_sameAsHibernate() {
+        User saved = dao.save(new User("Mark", "mark@test.com", 9));
+
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getCreatedAt());
+
+        User byId = dao.findById(saved.getId()).orElseThrow();
+        User byEmail = dao.findByEmail("mark@test.com").orElseThrow();
+        try (Session session = sessionFactory.openSession()) {
+            User hibernate = session.find(User.class, saved.getId());
+            assertEquals(hibernate.getName(), byId.getName());
+            assertEquals(hibernate.getAge(), byId.getAge());
+            assertEquals(hibernate.getCreatedAt(), byId.getCreatedAt());
+        }
+        assertEquals(saved.getId(), byEmail.getId());
+        assertTrue(dao.findById(999_999L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("duplicate email surfaces as DuplicateEmailException over SQLState 23505")
+    void save_duplicateEmail_uniqueViolation() {
+        dao.save(new User("Mark", "mark@test.com", 9));
+
+        DuplicateEmailException ex = assertThrows(DuplicateEmailException.class,
+                () -> dao.save(new User("Other", "mark@test.com", 10)));
+        assertEquals("23505", assertInstanceOf(ConstraintViolationException.class, ex.getCause()).getSQLState());
+    }
+
+    @Test
+    @DisplayName("updateById, updateReturning, upsertByEmail and delete behave like UserDaoImpl")
+    void writes_matchUserDaoImpl() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        assertEquals(1, dao.updateById(id, "Marcus", "mark@test.com", 10));
+        assertEquals(0, dao.updateById(999_999L, "Nobody", "nobody@test.com", 10));
+
+        User returned = dao.updateReturning(id, "Mark", "new@test.com", 11).orElseThrow();
+        assertEquals("new@test.com", returned.getEmail());
+        assertTrue(dao.updateReturning(999_999L, "Nobody", "nobody@test.com", 10).isEmpty());
+
+        User upserted = dao.upsertByEmail("Renamed", "new@test.com", 12);
+        assertEquals(id, upserted.getId());
+        assertNotEquals(id, dao.upsertByEmail("Jane", "jane@test.com", 30).getId());
+
+        assertEquals(1, dao.delete(id));
+        assertEquals(0, dao.delete(id));
+    }
+
+    @Test
+    @DisplayName("streamAll and updateAllById work over the pool")
+    void streamAll_andBatchUpdate() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(dao.save(new User("User" + i, "user" + i + "@test.com", 20)).getId());
+        }
+
+        int[] rows = dao.updateAllById(List.of(
+                new UserUpdate(ids.get(0), "First", "user0@test.com", 21),
+                new UserUpdate(ids.get(1), "Second", "user1@test.com", 22)));
+        assertArrayEquals(new int[]{1, 1}, rows);
+
+        List<Long> streamed = new ArrayList<>();
+        assertEquals(30, dao.streamAll(user -> streamed.add(user.getId())));
+        assertEquals(ids.stream().sorted().toList(), streamed);
+        assertEquals("First", dao.findById(ids.get(0)).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("a failing unit of work rolls back every call made inside it")
+    void inTransaction_failure_rollsBack() {
+        assertThrows(DuplicateEmailException.class, () -> dao.inTransaction(tx -> {
+            tx.save(new User("Mark", "mark@test.com", 9));
+            return tx.save(new User("Other", "mark@test.com", 10));
+        }));
+
+        assertTrue(dao.findByEmail("mark@test.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("a read-only unit of work rejects writes")
+    void inTransaction_readOnly_rejectsWrites() {
+        assertThrows(RuntimeException.class, () -> dao.inTransaction(TxMode.READ_ONLY,
+                tx -> tx.save(new User("Mark", "mark@test.com", 9))));
+
+        assertTrue(dao.findByEmail("mark@test.com").isEmpty());
+        assertEquals(0, dao.inTransaction(TxMode.READ_ONLY, tx -> tx.streamAll(user -> { })));
+    }
+
+    @Test
+    @DisplayName("an expired deadline fails fast without touching the database")
+    void expiredDeadline_failsFast() {
+        try (Deadline.Scope ignored = Deadline.within(Duration.ZERO)) {
+            assertThrows(DaoTimeoutException.class, () -> dao.findById(1L));
+        }
+    }
+
+    private static SessionFactory buildSessionFactory() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        return new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.itwizardry.userservice.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measured throughput and p99 per scenario, stored as a flat JSON object
+ * ({@code "<scenario>.throughput_ops": 1234, "<scenario>.p99_us": 850}) so that a baseline
+ * file diffs line by line when it is re-recorded. The format is owned by this class: only
+ * {@code "key": <integer>} pairs are read, anything else (e.g. {@code "jdk"}, {@code "note"}) is ignored.
+ */
+final class PerfBaseline {
+
+    static final String THROUGHPUT = ".throughput_ops";
+    static final String P99 = ".p99_us";
+
+    // p99 of sub-millisecond calls jitters by tens of microseconds between runs on the same machine
+    private static final long P99_SLACK_MICROS = 100;
+
+    private static final Pattern NUMERIC_FIELD = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(-?\\d+)\\s*[,}]");
+
+    private final Map<String, Metrics> scenarios = new LinkedHashMap<>();
+
+    void put(String scenario, Metrics metrics) {
+        scenarios.put(scenario, metrics);
+    }
+
+    Map<String, Metrics> scenarios() {
+        return scenarios;
+    }
+
+    /**
+     * Scenarios whose throughput dropped or whose p99 grew by more than {@code tolerance}
+     * (a fraction, e.g. {@code 0.25}) relative to {@code baseline}. A scenario missing from
+     * the baseline is reported as well, so new scenarios cannot pass unchecked.
+     */
+    List<String> regressionsAgainst(PerfBaseline baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        scenarios.forEach((scenario, current) -> {
+            Metrics expected = baseline.scenarios.get(scenario);
+            if (expected == null) {
+                regressions.add(scenario + ": not in the baseline, re-record it");
+                return;
+            }
+
+            if (current.throughputOps() < expected.throughputOps() * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %d ops/s, baseline %d ops/s",
+                        scenario, current.throughputOps(), expected.throughputOps()));
+            }
+            long p99Limit = Math.max(Math.round(expected.p99Micros() * (1 + tolerance)),
+                    expected.p99Micros() + P99_SLACK_MICROS);
+            if (current.p99Micros() > p99Limit) {
+                regressions.add(String.format("%s: p99 %d us, baseline %d us",
+                        scenario, current.p99Micros(), expected.p99Micros()));
+            }
+        });
+        return regressions;
+    }
+
+    static PerfBaseline read(Path file) {
+        String json;
+        try {
+            json = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read baseline " + file, e);
+        }
+
+        Map<String, Long> fields = new LinkedHashMap<>();
+        Matcher m = NUMERIC_FIELD.matcher(json);
+        while (m.find()) {
+            fields.put(m.group(1), Long.parseLong(m.group(2)));
+        }
+
+        PerfBaseline baseline = new PerfBaseline();
+        fields.forEach((key, throughput) -> {
+            if (!key.endsWith(THROUGHPUT)) return;
+            String scenario = key.substring(0, key.length() - THROUGHPUT.length());
+            Long p99 = fields.get(scenario + P99);
+            if (p99 == null) {
+                throw new IllegalArgumentException("Baseline " + file + " has no " + P99 + " for " + scenario);
+            }
+            baseline.put(scenario, new Metrics(throughput, p99));
+        });
+        if (baseline.scenarios.isEmpty()) {
+            throw new IllegalArgumentException("Baseline " + file + " contains no scenarios");
+        }
+        return baseline;
+    }
+
+    void write(Path file) {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"jdk\": \"").append(Runtime.version()).append("\",\n");
+        sb.append("  \"cpus\": ").append(Runtime.getRuntime().availableProcessors());
+        scenarios.forEach((scenario, metrics) -> {
+            sb.append(",\n  \"").append(scenario).append(THROUGHPUT).append("\": ").append(metrics.throughputOps());
+            sb.append(",\n  \"").append(scenario).append(P99).append("\": ").append(metrics.p99Micros());
+        });
+        sb.append("\n}\n");
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, sb, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write " + file, e);
+        }
+    }
+
+    record Metrics(long throughputOps, long p99Micros) {
+    }
+}
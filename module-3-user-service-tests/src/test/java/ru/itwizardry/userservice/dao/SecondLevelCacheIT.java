@@ -0,0 +1,160 @@
+package ru.itwizardry.userservice.dao;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.dao.proxy.TransactionalUserDaoProxy;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.util.HibernateUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Second-level cache of HibernateUtil IT (PostgreSQL Testcontainers)")
+class SecondLevelCacheIT {
+
+    private static final String USER_REGION = User.class.getName();
+    private static final String NATURAL_ID_REGION = USER_REGION + "##NaturalId";
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory schemaFactory;
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private TransactionalUserDaoProxy dao;
+
+    @BeforeAll
+    void setUp() {
+        // HibernateUtil does not create the schema, a separate factory without the cache does
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        schemaFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        sessionFactory = HibernateUtil.createSessionFactory(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), "");
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        dao = new TransactionalUserDaoProxy(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+        if (schemaFactory != null) schemaFactory.close();
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        try (Session session = schemaFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            session.getTransaction().commit();
+        }
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("User entities are cached in their own region named after the entity")
+    void userRegion_fromEhcacheXml() {
+        assertTrue(Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(USER_REGION),
+                () -> "regions: " + String.join(", ", statistics.getSecondLevelCacheRegionNames()));
+    }
+
+    @Test
+    @DisplayName("second findById is served from the second-level cache without a statement")
+    void findById_secondCall_hitsCache() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+        sessionFactory.getCache().evictEntityData(User.class, id);
+        statistics.clear();
+
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+        long statementsAfterMiss = statistics.getPrepareStatementCount();
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertEquals(1, statistics.getSecondLevelCachePutCount());
+
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(USER_REGION).getHitCount());
+        assertEquals(statementsAfterMiss, statistics.getPrepareStatementCount(), "cache hit must not query");
+    }
+
+    @Test
+    @DisplayName("email resolutions have their own region from ehcache.xml")
+    void naturalIdRegion_fromEhcacheXml() {
+        assertTrue(Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(NATURAL_ID_REGION),
+                () -> "regions: " + String.join(", ", statistics.getSecondLevelCacheRegionNames()));
+    }
+
+    @Test
+    @DisplayName("second findByEmail resolves the natural id from the cache without a statement")
+    void findByEmail_secondCall_hitsNaturalIdCache() {
+        dao.save(new User("Mark", "mark@test.com", 9));
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+
+        assertEquals("Mark", dao.findByEmail("mark@test.com").orElseThrow().getName());
+        long statementsAfterMiss = statistics.getPrepareStatementCount();
+        assertEquals(1, statistics.getNaturalIdCachePutCount());
+
+        assertEquals("Mark", dao.findByEmail("mark@test.com").orElseThrow().getName());
+
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(statementsAfterMiss, statistics.getPrepareStatementCount(), "cache hit must not query");
+    }
+
+    @Test
+    @DisplayName("a changed email no longer resolves through its stale natural-id entry")
+    void findByEmail_emailChanged_staleResolutionIgnored() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+        dao.findByEmail("mark@test.com").orElseThrow();
+
+        assertEquals(1, dao.updateById(id, "Mark", "marcus@test.com", 9));
+
+        assertTrue(dao.findByEmail("mark@test.com").isEmpty());
+        assertEquals(id, dao.findByEmail("marcus@test.com").orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("an update is visible through the cache on the next read")
+    void updateById_cachedEntry_refreshed() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+        dao.findById(id).orElseThrow();
+
+        assertEquals(1, dao.updateById(id, "Marcus", "marcus@test.com", 10));
+
+        User reloaded = dao.findById(id).orElseThrow();
+        assertEquals("Marcus", reloaded.getName());
+        assertEquals("marcus@test.com", reloaded.getEmail());
+    }
+}
@@ -0,0 +1,244 @@
+package ru.itwizardry.userservice.dao;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("ShardedUserDao IT (3 x PostgreSQL Testcontainers)")
+class ShardedUserDaoIT {
+
+    // same as db/003-users-sharding.sql
+    private static final List<String> SHARD_DDL = List.of(
+            "CREATE SEQUENCE IF NOT EXISTS users_shard_local_seq",
+            "CREATE TABLE IF NOT EXISTS users_email_directory (email VARCHAR(255) PRIMARY KEY, user_id BIGINT NOT NULL)"
+    );
+
+    @Container
+    static final PostgreSQLContainer SHARD_0 = shard();
+
+    @Container
+    static final PostgreSQLContainer SHARD_1 = shard();
+
+    @Container
+    static final PostgreSQLContainer SHARD_2 = shard();
+
+    private final List<SessionFactory> sessionFactories = new ArrayList<>();
+    private ShardedUserDao dao;
+
+    private static PostgreSQLContainer shard() {
+        return new PostgreSQLContainer("postgres:15")
+                .withDatabaseName("user_service_test")
+                .withUsername("test")
+                .withPassword("test");
+    }
+
+    @BeforeAll
+    void setUp() {
+        for (PostgreSQLContainer container : List.of(SHARD_0, SHARD_1, SHARD_2)) {
+            SessionFactory sf = buildSessionFactory(container);
+            try (Session session = sf.openSession()) {
+                session.beginTransaction();
+                SHARD_DDL.forEach(ddl -> session.createNativeMutationQuery(ddl).executeUpdate());
+                session.getTransaction().commit();
+            }
+            sessionFactories.add(sf);
+        }
+        dao = new ShardedUserDao(sessionFactories);
+    }
+
+    @AfterAll
+    void tearDown() {
+        sessionFactories.forEach(SessionFactory::close);
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        for (SessionFactory sf : sessionFactories) {
+            try (Session session = sf.openSession()) {
+                session.beginTransaction();
+                session.createMutationQuery("delete from User").executeUpdate();
+                session.createNativeMutationQuery("delete from users_email_directory").executeUpdate();
+                session.getTransaction().commit();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("users are spread over all shards and each id points at its shard")
+    void save_manyUsers_spreadAcrossShards() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add(dao.save(new User("User" + i, "user" + i + "@test.com", 20)).getId());
+        }
+
+        assertEquals(60, ids.size(), "Ids must be globally unique");
+        for (int shard = 0; shard < 3; shard++) {
+            long rows = countOn(shard);
+            assertTrue(rows > 0, "Shard " + shard + " got no users");
+            for (Long id : idsOn(shard)) {
+                assertEquals(shard, dao.shardForId(id));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ids keep their shard when a shard is added")
+    void findById_afterAddingShard_routesToSameShard() {
+        ShardedUserDao twoShards = new ShardedUserDao(sessionFactories.subList(0, 2));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(twoShards.save(new User("User" + i, "user" + i + "@test.com", 20)).getId());
+        }
+
+        for (Long id : ids) {
+            assertEquals(twoShards.shardForId(id), dao.shardForId(id));
+            assertEquals(id, dao.findById(id).orElseThrow().getId());
+        }
+    }
+
+    @Test
+    @DisplayName("an id encoding a shard that does not exist is simply not found")
+    void findById_unknownShard_empty() {
+        long id = (1L << ShardedUserDao.SHARD_BITS) | 5;
+
+        assertTrue(dao.findById(id).isEmpty());
+        assertEquals(0, dao.delete(id));
+        assertTrue(dao.updateReturning(id, "Mark", "mark@test.com", 9).isEmpty());
+    }
+
+    @Test
+    @DisplayName("findById and findByEmail route to the owning shard")
+    void find_routesToOwningShard() {
+        User saved = dao.save(new User("Mark", "mark@test.com", 9));
+
+        assertEquals("mark@test.com", dao.findById(saved.getId()).orElseThrow().getEmail());
+        assertEquals(saved.getId(), dao.findByEmail("mark@test.com").orElseThrow().getId());
+        assertTrue(dao.findByEmail("nobody@test.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("the same email cannot be saved twice, whatever shard it would land on")
+    void save_duplicateEmail_rejected() {
+        dao.save(new User("Mark", "mark@test.com", 9));
+
+        assertThrows(RuntimeException.class, () -> dao.save(new User("Other", "mark@test.com", 10)));
+        assertEquals(1, totalCount());
+    }
+
+    @Test
+    @DisplayName("email change moves the directory entry; the old email becomes free")
+    void updateReturning_emailChange_movesDirectoryEntry() {
+        Long id = dao.save(new User("Mark", "old@test.com", 9)).getId();
+
+        User updated = dao.updateReturning(id, "Marcus", "new@test.com", 10).orElseThrow();
+
+        assertEquals(id, updated.getId());
+        assertEquals(id, dao.findByEmail("new@test.com").orElseThrow().getId());
+        assertTrue(dao.findByEmail("old@test.com").isEmpty());
+        assertNotNull(dao.save(new User("Other", "old@test.com", 30)).getId());
+    }
+
+    @Test
+    @DisplayName("email change to an email owned by another user is rejected and changes nothing")
+    void updateReturning_takenEmail_rejected() {
+        Long first = dao.save(new User("First", "first@test.com", 20)).getId();
+        dao.save(new User("Second", "second@test.com", 21));
+
+        assertThrows(RuntimeException.class, () -> dao.updateReturning(first, "First", "second@test.com", 20));
+        assertEquals("first@test.com", dao.findById(first).orElseThrow().getEmail());
+        assertEquals(first, dao.findByEmail("first@test.com").orElseThrow().getId());
+    }
+
+    @Test
+    @DisplayName("upsertByEmail updates an existing user and inserts a new one")
+    void upsertByEmail_insertsOrUpdates() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        assertEquals(id, dao.upsertByEmail("Marcus", "mark@test.com", 10).getId());
+        assertEquals("Marcus", dao.findById(id).orElseThrow().getName());
+        assertNotNull(dao.upsertByEmail("Jane", "jane@test.com", 30).getId());
+        assertEquals(2, totalCount());
+    }
+
+    @Test
+    @DisplayName("delete removes the user and frees its email")
+    void delete_freesEmail() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        assertEquals(1, dao.delete(id));
+        assertTrue(dao.findById(id).isEmpty());
+        assertTrue(dao.findByEmail("mark@test.com").isEmpty());
+        assertNotNull(dao.save(new User("Mark", "mark@test.com", 9)).getId());
+    }
+
+    @Test
+    @DisplayName("streamAll gathers every shard in global id order")
+    void streamAll_mergesShardsById() {
+        for (int i = 0; i < 30; i++) {
+            dao.save(new User("User" + i, "user" + i + "@test.com", 20));
+        }
+
+        List<Long> streamed = new ArrayList<>();
+        long count = dao.streamAll(user -> streamed.add(user.getId()));
+
+        assertEquals(30, count);
+        assertEquals(streamed.stream().sorted().toList(), streamed);
+    }
+
+    private static SessionFactory buildSessionFactory(PostgreSQLContainer container) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, container.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, container.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, container.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        return new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    private long countOn(int shard) {
+        try (Session session = sessionFactories.get(shard).openSession()) {
+            return session.createQuery("select count(u) from User u", Long.class).getSingleResult();
+        }
+    }
+
+    private List<Long> idsOn(int shard) {
+        try (Session session = sessionFactories.get(shard).openSession()) {
+            return session.createQuery("select u.id from User u", Long.class).getResultList();
+        }
+    }
+
+    private long totalCount() {
+        long total = 0;
+        for (int shard = 0; shard < sessionFactories.size(); shard++) {
+            total += countOn(shard);
+        }
+        return total;
+    }
+}
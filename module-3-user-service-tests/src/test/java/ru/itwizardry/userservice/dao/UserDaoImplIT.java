@@ -172,6 +172,38 @@ class UserDaoImplIT {
             Optional<User> found = inTx(session -> dao(session).findByEmail(EMAIL_ABSENT));
             assertTrue(found.isEmpty(), "findByEmail must return empty for missing email=" + EMAIL_ABSENT);
         }
+
+        @Test
+        @DisplayName("fills email fingerprint on insert and keeps it in sync on update")
+        void emailFingerprint_generatedByDatabase() {
+            Long id = inTx(session -> {
+                User user = user(NAME_MARK, EMAIL_MARK, AGE_9);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+
+            assertEquals(fingerprintOf(EMAIL_MARK), storedFingerprint(id), "email_fp must match lower(email) hash");
+
+            inTxVoid(session -> dao(session).updateById(id, NAME_MARK, EMAIL_ABSENT, AGE_9));
+
+            assertEquals(fingerprintOf(EMAIL_ABSENT), storedFingerprint(id), "email_fp must follow email updates");
+        }
+
+        @Test
+        @DisplayName("confirms full email after fingerprint match (case differs)")
+        void findByEmail_sameFingerprintDifferentCase_returnsEmpty() {
+            inTxVoid(session -> {
+                dao(session).save(user(NAME_MARK, EMAIL_MARK, AGE_9));
+                session.flush();
+            });
+
+            String upper = EMAIL_MARK.toUpperCase();
+            assertEquals(fingerprintOf(EMAIL_MARK), fingerprintOf(upper), "fingerprint is case-insensitive");
+
+            Optional<User> found = inTx(session -> dao(session).findByEmail(upper));
+            assertTrue(found.isEmpty(), "findByEmail must compare the full email after the fingerprint match");
+        }
     }
 
     @Nested
@@ -226,6 +258,129 @@ class UserDaoImplIT {
         }
     }
 
+    @Nested
+    @DisplayName("updateReturning()")
+    class UpdateReturningTests {
+
+        @Test
+        @DisplayName("returns the updated row for existing id")
+        void updateReturning_existing_returnsUpdatedUser() {
+            Long id = inTx(session -> {
+                User user = user(NAME_OLD, EMAIL_OLD, AGE_10);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+
+            Optional<User> updatedOpt = inTx(session -> dao(session).updateReturning(id, NAME_NEW, EMAIL_NEW, AGE_11));
+            User updated = requirePresent(updatedOpt, "updateReturning must return row for existing id=" + id);
+
+            assertEquals(id, updated.getId());
+            assertUser(updated, NAME_NEW, EMAIL_NEW, AGE_11);
+            assertNotNull(updated.getCreatedAt(), "created_at must be mapped from RETURNING *");
+            assertUser(inTx(session -> session.find(User.class, id)), NAME_NEW, EMAIL_NEW, AGE_11);
+        }
+
+        @Test
+        @DisplayName("returns fresh state even if the user is already loaded in the session")
+        void updateReturning_userLoadedInSession_returnsFreshState() {
+            Long id = inTx(session -> {
+                User user = user(NAME_OLD, EMAIL_OLD, AGE_10);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+
+            User updated = inTx(session -> {
+                session.find(User.class, id);
+                return dao(session).updateReturning(id, NAME_NEW, EMAIL_NEW, AGE_11).orElseThrow();
+            });
+
+            assertUser(updated, NAME_NEW, EMAIL_NEW, AGE_11);
+        }
+
+        @Test
+        @DisplayName("returns empty for missing id")
+        void updateReturning_missing_returnsEmpty() {
+            Optional<User> updated = inTx(session ->
+                    dao(session).updateReturning(MISSING_USER_ID, NAME_NEW, EMAIL_NEW, AGE_11));
+            assertTrue(updated.isEmpty(), "updateReturning must return empty for missing id=" + MISSING_USER_ID);
+        }
+
+        @Test
+        @DisplayName("throws unique violation (23505) when updating email to existing one")
+        void updateReturning_duplicateEmail_throwsUniqueViolation_23505() {
+            Long id1 = inTx(session -> {
+                User u = user(NAME_USER1, EMAIL_A, AGE_20);
+                dao(session).save(u);
+                session.flush();
+                return u.getId();
+            });
+
+            inTxVoid(session -> {
+                dao(session).save(user(NAME_USER2, EMAIL_B, AGE_21));
+                session.flush();
+            });
+
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> inTxVoid(session ->
+                    dao(session).updateReturning(id1, NAME_USER1, EMAIL_B, AGE_22)
+            ), "Updating email to existing one must fail with unique constraint");
+
+            assertPostgresUniqueViolation(ex);
+        }
+    }
+
+    @Nested
+    @DisplayName("upsertByEmail()")
+    class UpsertByEmailTests {
+
+        @Test
+        @DisplayName("inserts a new user when email is free")
+        void upsertByEmail_newEmail_inserts() {
+            User inserted = inTx(session -> dao(session).upsertByEmail(NAME_MARK, EMAIL_MARK, AGE_9));
+
+            assertNotNull(inserted.getId(), "Inserted user must get an id");
+            assertNotNull(inserted.getCreatedAt());
+            assertUser(inTx(session -> session.find(User.class, inserted.getId())), NAME_MARK, EMAIL_MARK, AGE_9);
+        }
+
+        @Test
+        @DisplayName("updates name and age of the existing user with the same email")
+        void upsertByEmail_existingEmail_updatesInPlace() {
+            Long id = inTx(session -> {
+                User user = user(NAME_OLD, EMAIL_MARK, AGE_10);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+
+            User upserted = inTx(session -> dao(session).upsertByEmail(NAME_NEW, EMAIL_MARK, AGE_11));
+
+            assertEquals(id, upserted.getId(), "Upsert must keep the id of the existing row");
+            assertUser(upserted, NAME_NEW, EMAIL_MARK, AGE_11);
+        }
+
+        @Test
+        @DisplayName("ids of upserted rows do not clash with ids allocated by Hibernate")
+        void upsertByEmail_mixedWithSave_idsAreUnique() {
+            Long savedId = inTx(session -> {
+                User user = user(NAME_USER1, EMAIL_A, AGE_20);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+            User upserted = inTx(session -> dao(session).upsertByEmail(NAME_USER2, EMAIL_B, AGE_21));
+            Long savedAfterId = inTx(session -> {
+                User user = user(NAME_MARK, EMAIL_MARK, AGE_9);
+                dao(session).save(user);
+                session.flush();
+                return user.getId();
+            });
+
+            assertEquals(3, Set.of(savedId, upserted.getId(), savedAfterId).size());
+        }
+    }
+
     @Nested
     @DisplayName("delete()")
     class DeleteTests {
@@ -255,6 +410,40 @@ class UserDaoImplIT {
         }
     }
 
+    @Nested
+    @DisplayName("streamAll()")
+    class StreamAllTests {
+
+        @Test
+        @DisplayName("streams all users ordered by id and detaches them")
+        void streamAll_returnsAllUsersInIdOrder() {
+            inTxVoid(session -> {
+                dao(session).save(user(NAME_USER1, EMAIL_A, AGE_20));
+                dao(session).save(user(NAME_USER2, EMAIL_B, AGE_21));
+                session.flush();
+            });
+
+            List<User> streamed = new ArrayList<>();
+            long count = inTx(session -> {
+                long rows = dao(session).streamAll(streamed::add);
+                streamed.forEach(u -> assertFalse(session.contains(u),
+                        "Streamed user must not stay in persistence context"));
+                return rows;
+            });
+
+            assertEquals(2, count, "streamAll must report number of streamed rows");
+            assertEquals(List.of(EMAIL_A, EMAIL_B), streamed.stream().map(User::getEmail).toList(),
+                    "Users must be streamed in id order");
+        }
+
+        @Test
+        @DisplayName("streams nothing for empty table")
+        void streamAll_empty_returns0() {
+            long count = inTx(session -> dao(session).streamAll(u -> fail("No users expected")));
+            assertEquals(0, count, "streamAll must return 0 for empty table");
+        }
+    }
+
     private static UserDaoImpl dao(Session session) {
         return new UserDaoImpl(session);
     }
@@ -277,6 +466,20 @@ class UserDaoImplIT {
         );
     }
 
+    private long fingerprintOf(String email) {
+        return inTx(session -> ((Number) session
+                .createNativeQuery("select hashtextextended(lower(:email), 0)", Object.class)
+                .setParameter("email", email)
+                .getSingleResult()).longValue());
+    }
+
+    private long storedFingerprint(Long id) {
+        return inTx(session -> ((Number) session
+                .createNativeQuery("select email_fp from users where id = :id", Object.class)
+                .setParameter("id", id)
+                .getSingleResult()).longValue());
+    }
+
     private SessionFactory buildSessionFactory() {
         StandardServiceRegistry registry = null;
         try {
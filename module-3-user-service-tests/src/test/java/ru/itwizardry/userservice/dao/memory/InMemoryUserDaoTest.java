@@ -0,0 +1,289 @@
+package ru.itwizardry.userservice.dao.memory;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InMemoryUserDao (unit)")
+class InMemoryUserDaoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("CRUD works on the volatile store and returns copies")
+    void crud_volatileStore() {
+        InMemoryUserDao dao = new InMemoryUserDao();
+
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+        dao.findById(id).orElseThrow().setName("Changed outside");
+
+        assertEquals("Mark", dao.findByEmail("mark@test.com").orElseThrow().getName());
+        assertEquals("Marcus", dao.updateReturning(id, "Marcus", "marcus@test.com", 10).orElseThrow().getName());
+        assertTrue(dao.findByEmail("mark@test.com").isEmpty());
+        assertEquals(1, dao.delete(id));
+        assertEquals(0, dao.delete(id));
+        assertEquals(0, dao.size());
+    }
+
+    @Test
+    @DisplayName("duplicate email fails like PostgreSQL (SQLState 23505)")
+    void save_duplicateEmail_uniqueViolation() {
+        InMemoryUserDao dao = new InMemoryUserDao();
+        dao.save(new User("Mark", "mark@test.com", 9));
+        Long other = dao.save(new User("Jane", "jane@test.com", 30)).getId();
+
+        DuplicateEmailException ex = assertThrows(DuplicateEmailException.class,
+                () -> dao.save(new User("Other", "mark@test.com", 10)));
+        assertEquals("23505", assertInstanceOf(ConstraintViolationException.class, ex.getCause()).getSQLState());
+        assertThrows(DuplicateEmailException.class,
+                () -> dao.updateById(other, "Jane", "mark@test.com", 30));
+        assertEquals(2, dao.size());
+    }
+
+    @Test
+    @DisplayName("state survives a restart by replaying the write-ahead log")
+    void reopen_replaysLog() {
+        Long kept;
+        Long deleted;
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            kept = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+            deleted = dao.save(new User("Jane", "jane@test.com", 30)).getId();
+            dao.upsertByEmail("Marcus", "mark@test.com", 10);
+            dao.delete(deleted);
+        }
+
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            assertEquals("Marcus", dao.findById(kept).orElseThrow().getName());
+            assertTrue(dao.findById(deleted).isEmpty());
+            Long next = dao.save(new User("New", "new@test.com", 20)).getId();
+            assertTrue(next > deleted, "Ids of deleted users must not be reused");
+        }
+    }
+
+    @Test
+    @DisplayName("snapshot drops covered log segments and recovery combines snapshot and log")
+    void snapshot_thenMoreWrites_recovered() throws IOException {
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            for (int i = 0; i < 100; i++) {
+                dao.save(new User("User" + i, "user" + i + "@test.com", 20));
+            }
+            dao.snapshot();
+            dao.save(new User("After", "after@test.com", 21));
+        }
+
+        assertTrue(Files.exists(dir.resolve("snapshot.bin")));
+        assertEquals(1, walFiles().size(), "Segments covered by the snapshot must be deleted");
+
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            assertEquals(101, dao.size());
+            assertTrue(dao.findByEmail("after@test.com").isPresent());
+            assertTrue(dao.findByEmail("user42@test.com").isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("a torn record at the end of the log is cut off on recovery")
+    void reopen_tornTail_truncated() throws IOException {
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            dao.save(new User("Mark", "mark@test.com", 9));
+        }
+        Path wal = walFiles().getLast();
+        try (FileChannel ch = FileChannel.open(wal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            assertEquals(1, dao.size());
+            dao.save(new User("Jane", "jane@test.com", 30));
+        }
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            assertEquals(2, dao.size());
+        }
+    }
+
+    @Test
+    @DisplayName("concurrent writers with group commit lose nothing")
+    void save_concurrentWriters_allDurable() throws Exception {
+        int writers = 8;
+        int perWriter = 50;
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings());
+             ExecutorService pool = Executors.newFixedThreadPool(writers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        dao.save(new User("U", "w" + writer + "-" + i + "@test.com", 20));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        }
+
+        try (InMemoryUserDao dao = new InMemoryUserDao(settings())) {
+            assertEquals(writers * perWriter, dao.size());
+            List<Long> ids = new ArrayList<>();
+            dao.streamAll(u -> ids.add(u.getId()));
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+    }
+
+    @Test
+    @DisplayName("a write whose fsync fails is rolled back and never visible afterwards")
+    void updateReturning_fsyncFails_rolledBack() throws Exception {
+        InMemoryUserDao dao = new InMemoryUserDao(settings());
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+        failFsync(dao);
+
+        assertThrows(UncheckedIOException.class, () -> dao.updateReturning(id, "Marcus", "marcus@test.com", 10));
+
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+        assertEquals(id, dao.findByEmail("mark@test.com").orElseThrow().getId());
+        assertTrue(dao.findByEmail("marcus@test.com").isEmpty());
+        assertThrows(IllegalStateException.class, () -> dao.save(new User("Jane", "jane@test.com", 30)));
+        assertEquals(1, dao.size());
+        assertThrows(UncheckedIOException.class, dao::close);
+    }
+
+    private InMemoryUserDao.Settings settings() {
+        return new InMemoryUserDao.Settings(dir, Duration.ZERO, Duration.ZERO);
+    }
+
+    // swaps the log's channel for one whose force() fails, as a full or failing disk would
+    private static void failFsync(InMemoryUserDao dao) throws ReflectiveOperationException {
+        Field walField = InMemoryUserDao.class.getDeclaredField("wal");
+        walField.setAccessible(true);
+        Object wal = walField.get(dao);
+        Field channelField = WriteAheadLog.class.getDeclaredField("channel");
+        channelField.setAccessible(true);
+        channelField.set(wal, new ForceFailingChannel((FileChannel) channelField.get(wal)));
+    }
+
+    private List<Path> walFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("wal-")).sorted().toList();
+        }
+    }
+
+    private static final class ForceFailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+
+        ForceFailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            throw new IOException("Input/output error");
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingUserDaoProxy (unit)")
+class CachingUserDaoProxyTest {
+
+    private static final long ID = 1L;
+    private static final long MISSING_ID = 999L;
+    private static final String EMAIL = "mark@test.com";
+    private static final String NEW_EMAIL = "new@test.com";
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+    @Mock
+    private UserDao target;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CachingUserDaoProxy cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CachingUserDaoProxy(target,
+                new CachingUserDaoProxy.Settings(2, TTL, NEGATIVE_TTL), clock::get);
+    }
+
+    @Test
+    @DisplayName("findById(): second call is served from cache")
+    void findById_repeated_hitsTargetOnce() {
+        User user = user(ID, EMAIL);
+        when(target.findById(ID)).thenReturn(Optional.of(user));
+
+        assertSame(user, cache.findById(ID).orElseThrow());
+        assertSame(user, cache.findById(ID).orElseThrow());
+
+        verify(target, times(1)).findById(ID);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.5, cache.stats().hitRatio());
+    }
+
+    @Test
+    @DisplayName("findByEmail(): resolved through email -> id mapping after findById")
+    void findByEmail_afterFindById_servedFromCache() {
+        User user = user(ID, EMAIL);
+        when(target.findById(ID)).thenReturn(Optional.of(user));
+
+        cache.findById(ID);
+
+        assertSame(user, cache.findByEmail(EMAIL).orElseThrow());
+        verify(target, never()).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("findById(): entry expires after ttl")
+    void findById_afterTtl_reloads() {
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+
+        cache.findById(ID);
+        clock.addAndGet(TTL.toNanos());
+        cache.findById(ID);
+
+        verify(target, times(2)).findById(ID);
+    }
+
+    @Test
+    @DisplayName("findById(): misses are cached for negativeTtl")
+    void findById_missing_negativeCached() {
+        when(target.findById(MISSING_ID)).thenReturn(Optional.empty());
+
+        assertTrue(cache.findById(MISSING_ID).isEmpty());
+        assertTrue(cache.findById(MISSING_ID).isEmpty());
+        verify(target, times(1)).findById(MISSING_ID);
+
+        clock.addAndGet(NEGATIVE_TTL.toNanos());
+        cache.findById(MISSING_ID);
+        verify(target, times(2)).findById(MISSING_ID);
+    }
+
+    @Test
+    @DisplayName("updateById(): invalidates id and both emails")
+    void updateById_invalidatesEntries() {
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+        when(target.findByEmail(NEW_EMAIL)).thenReturn(Optional.empty());
+        when(target.updateById(ID, "New", NEW_EMAIL, 20)).thenReturn(1);
+
+        cache.findById(ID);
+        cache.findByEmail(NEW_EMAIL);
+        cache.updateById(ID, "New", NEW_EMAIL, 20);
+        cache.findById(ID);
+        cache.findByEmail(NEW_EMAIL);
+
+        verify(target, times(2)).findById(ID);
+        verify(target, times(2)).findByEmail(NEW_EMAIL);
+    }
+
+    @Test
+    @DisplayName("updateReturning(): caches the returned row under id and new email")
+    void updateReturning_cachesReturnedUser() {
+        User updated = user(ID, NEW_EMAIL);
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+        when(target.findByEmail(NEW_EMAIL)).thenReturn(Optional.empty());
+        when(target.updateReturning(ID, "New", NEW_EMAIL, 20)).thenReturn(Optional.of(updated));
+
+        cache.findById(ID);
+        cache.findByEmail(NEW_EMAIL);
+        cache.updateReturning(ID, "New", NEW_EMAIL, 20);
+
+        assertSame(updated, cache.findById(ID).orElseThrow());
+        assertSame(updated, cache.findByEmail(NEW_EMAIL).orElseThrow());
+        verify(target, times(1)).findById(ID);
+        verify(target, times(1)).findByEmail(NEW_EMAIL);
+    }
+
+    @Test
+    @DisplayName("delete(): invalidates id")
+    void delete_invalidatesEntry() {
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+        when(target.delete(ID)).thenReturn(1);
+
+        cache.findById(ID);
+        cache.delete(ID);
+        cache.findById(ID);
+
+        verify(target, times(2)).findById(ID);
+    }
+
+    @Test
+    @DisplayName("save(): replaces negative email entry with saved user")
+    void save_populatesCache() {
+        User saved = user(ID, EMAIL);
+        when(target.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(target.save(saved)).thenReturn(saved);
+
+        assertTrue(cache.findByEmail(EMAIL).isEmpty());
+        cache.save(saved);
+
+        assertSame(saved, cache.findByEmail(EMAIL).orElseThrow());
+        assertSame(saved, cache.findById(ID).orElseThrow());
+        verify(target, times(1)).findByEmail(EMAIL);
+        verify(target, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("maxSize: least recently used entry is evicted")
+    void overflow_evictsLeastRecentlyUsed() {
+        when(target.findById(anyLong()))
+                .thenAnswer(inv -> Optional.of(user(inv.getArgument(0), inv.getArgument(0) + "@test.com")));
+
+        cache.findById(1L);
+        cache.findById(2L);
+        cache.findById(1L);
+        cache.findById(3L);
+        cache.findById(1L);
+        cache.findById(2L);
+
+        verify(target, times(1)).findById(1L);
+        verify(target, times(2)).findById(2L);
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("inTransaction(): keys written in a rolled-back unit of work are not served afterwards")
+    @SuppressWarnings("unchecked")
+    void inTransaction_rolledBack_invalidatesWrittenKeys() {
+        when(target.inTransaction(eq(TxMode.READ_WRITE), any()))
+                .thenAnswer(inv -> ((Function<UserDao, Object>) inv.getArgument(1)).apply(target));
+        when(target.updateReturning(ID, "Mark", NEW_EMAIL, 10)).thenReturn(Optional.of(user(ID, NEW_EMAIL)));
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+
+        assertThrows(IllegalStateException.class, () -> cache.inTransaction(dao -> {
+            dao.updateReturning(ID, "Mark", NEW_EMAIL, 10);
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(EMAIL, cache.findById(ID).orElseThrow().getEmail());
+        verify(target, times(1)).findById(ID);
+    }
+
+    @Test
+    @DisplayName("inTransaction(): written users reach the cache only after the unit commits")
+    @SuppressWarnings("unchecked")
+    void inTransaction_committed_cachesWrittenUsersAfterCommit() {
+        when(target.inTransaction(eq(TxMode.READ_WRITE), any()))
+                .thenAnswer(inv -> ((Function<UserDao, Object>) inv.getArgument(1)).apply(target));
+        when(target.updateReturning(ID, "Mark", NEW_EMAIL, 10)).thenReturn(Optional.of(user(ID, NEW_EMAIL)));
+
+        cache.inTransaction(dao -> {
+            dao.updateReturning(ID, "Mark", NEW_EMAIL, 10);
+            assertEquals(0, cache.stats().size(), "uncommitted user must not be shared");
+            return null;
+        });
+
+        assertEquals(NEW_EMAIL, cache.findById(ID).orElseThrow().getEmail());
+        assertEquals(ID, cache.findByEmail(NEW_EMAIL).orElseThrow().getId());
+        verify(target, never()).findById(ID);
+        verify(target, never()).findByEmail(NEW_EMAIL);
+    }
+
+    @Test
+    @DisplayName("inTransaction(): reads inside a unit of work neither hit nor fill the cache")
+    @SuppressWarnings("unchecked")
+    void inTransaction_reads_bypassCache() {
+        when(target.inTransaction(eq(TxMode.READ_WRITE), any()))
+                .thenAnswer(inv -> ((Function<UserDao, Object>) inv.getArgument(1)).apply(target));
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, EMAIL)));
+
+        cache.findById(ID);
+        cache.inTransaction(dao -> dao.findById(ID));
+        cache.inTransaction(dao -> dao.findByEmail(NEW_EMAIL));
+
+        verify(target, times(2)).findById(ID);
+        assertEquals(1, cache.stats().size());
+        assertEquals(0, cache.stats().hits());
+    }
+
+    private static User user(long id, String email) {
+        User user = new User("Mark", email, 10);
+        user.setId(id);
+        return user;
+    }
+}
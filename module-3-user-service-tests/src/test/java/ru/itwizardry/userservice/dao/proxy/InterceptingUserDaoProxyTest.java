@@ -0,0 +1,89 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.dao.UserDao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InterceptingUserDaoProxy (unit)")
+class InterceptingUserDaoProxyTest {
+
+    private static final long ID = 1L;
+
+    @Mock
+    private UserDao target;
+
+    @Test
+    @DisplayName("enabled interceptors run in order around a single target call")
+    void enabledInterceptors_runInOrder() {
+        List<String> calls = new ArrayList<>();
+        when(target.delete(ID)).thenAnswer(inv -> {
+            calls.add("target");
+            return 1;
+        });
+
+        UserDao dao = new InterceptingUserDaoProxy(target, List.of(
+                recording("first", calls),
+                recording("second", calls)
+        ));
+
+        assertEquals(1, dao.delete(ID));
+        assertEquals(List.of("first:DELETE", "second:DELETE", "target"), calls);
+        verify(target, times(1)).delete(ID);
+    }
+
+    @Test
+    @DisplayName("disabled interceptor is skipped")
+    void disabledInterceptor_isNotInvoked() {
+        DaoInterceptor disabled = mock(DaoInterceptor.class);
+        when(disabled.isEnabled()).thenReturn(false);
+        when(target.updateById(ID, "Name", "a@test.com", 10)).thenReturn(1);
+
+        UserDao dao = new InterceptingUserDaoProxy(target, List.of(disabled));
+
+        assertEquals(1, dao.updateById(ID, "Name", "a@test.com", 10));
+        verify(disabled, never()).intercept(any());
+    }
+
+    @Test
+    @DisplayName("interceptor may short-circuit the target")
+    void interceptor_canShortCircuit() {
+        DaoInterceptor shortCircuit = invocation -> 0;
+
+        UserDao dao = new InterceptingUserDaoProxy(target, List.of(shortCircuit));
+
+        assertEquals(0, dao.delete(ID));
+        verifyNoInteractions(target);
+    }
+
+    @Test
+    @DisplayName("describe() formats arguments with masked email")
+    void describe_usesFormatter() {
+        List<String> described = new ArrayList<>();
+        DaoInterceptor describing = invocation -> {
+            described.add(invocation.describe(new DefaultUserDaoLogFormatter()));
+            return invocation.proceed();
+        };
+        when(target.updateById(ID, "Name", "mark@test.com", 10)).thenReturn(1);
+
+        new InterceptingUserDaoProxy(target, List.of(describing)).updateById(ID, "Name", "mark@test.com", 10);
+
+        assertEquals(List.of("UserDao.updateById id=1 email=m***@test.com"), described);
+    }
+
+    private static DaoInterceptor recording(String name, List<String> calls) {
+        return invocation -> {
+            calls.add(name + ":" + invocation.operation());
+            return invocation.proceed();
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.jfr.DaoOperationEvent;
+import ru.itwizardry.userservice.jfr.ServiceOperationEvent;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("JfrDaoInterceptor (unit)")
+class JfrDaoInterceptorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("each call becomes a DaoOperation event with id, rows and outcome")
+    void calls_recordedAsEvents() throws Exception {
+        UserDao target = mock(UserDao.class);
+        User mark = new User("Mark", "mark@test.com", 9);
+        mark.setId(7L);
+        when(target.findByEmail("mark@test.com")).thenReturn(Optional.of(mark));
+        when(target.delete(7L)).thenReturn(1);
+        when(target.findById(8L)).thenThrow(new DaoTimeoutException("deadline exceeded"));
+        UserDao dao = new InterceptingUserDaoProxy(target, List.of(new JfrDaoInterceptor()));
+
+        List<RecordedEvent> events = record(() -> {
+            dao.findByEmail("mark@test.com");
+            dao.delete(7L);
+            assertThrows(DaoTimeoutException.class, () -> dao.findById(8L));
+        });
+
+        assertEquals(3, events.size());
+        assertEvent(events.get(0), "findByEmail", 7, 1, "OK");
+        assertEvent(events.get(1), "delete", 7, 1, "OK");
+        assertEvent(events.get(2), "findById", 8, -1, "TIMEOUT");
+        assertEquals(DaoTimeoutException.class.getName(), events.get(2).getString("error"));
+        assertTrue(events.stream().allMatch(e -> e.getStackTrace() == null));
+    }
+
+    @Test
+    @DisplayName("without a recording the call passes through unchanged")
+    void noRecording_passesThrough() {
+        UserDao target = mock(UserDao.class);
+        when(target.delete(1L)).thenReturn(1);
+
+        assertEquals(1, new InterceptingUserDaoProxy(target, List.of(new JfrDaoInterceptor())).delete(1L));
+    }
+
+    @Test
+    @DisplayName("bundled jfr/user-service.jfc enables both events with thresholds")
+    void bundledSettings_enableEventsWithThresholds() throws Exception {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(Objects.requireNonNull(
+                getClass().getResourceAsStream("/jfr/user-service.jfc")), StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+        Map<String, String> settings = configuration.getSettings();
+
+        assertEquals("true", settings.get(DaoOperationEvent.NAME + "#enabled"));
+        assertEquals("1 ms", settings.get(DaoOperationEvent.NAME + "#threshold"));
+        assertEquals("true", settings.get(ServiceOperationEvent.NAME + "#enabled"));
+        assertNotNull(settings.get(ServiceOperationEvent.NAME + "#threshold"));
+    }
+
+    private List<RecordedEvent> record(Runnable calls) throws Exception {
+        Path file = dir.resolve("dao.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DaoOperationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(DaoOperationEvent.NAME))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+    }
+
+    private static void assertEvent(RecordedEvent event, String operation, long userId, long rows, String outcome) {
+        assertEquals(operation, event.getString("operation"));
+        assertEquals(userId, event.getLong("userId"));
+        assertEquals(rows, event.getLong("rows"));
+        assertEquals(outcome, event.getString("outcome"));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.dao.metrics.DaoMetrics;
+import ru.itwizardry.userservice.dao.metrics.LatencySnapshot;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MetricsDaoInterceptor (unit)")
+class MetricsDaoInterceptorTest {
+
+    private static final long ID = 1L;
+
+    @Mock
+    private UserDao target;
+
+    private DaoMetrics metrics;
+    private UserDao dao;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new DaoMetrics();
+        dao = new InterceptingUserDaoProxy(target, List.of(new MetricsDaoInterceptor(metrics)));
+    }
+
+    @Test
+    @DisplayName("records latency per operation")
+    void successfulCalls_recordedPerOperation() {
+        when(target.findById(ID)).thenReturn(Optional.empty());
+
+        dao.findById(ID);
+        dao.findById(ID);
+        dao.findById(ID);
+
+        LatencySnapshot findById = metrics.forOperation(DaoOperation.FIND_BY_ID).intervalSnapshot();
+        assertEquals(3, findById.count());
+        assertEquals(0, findById.errors());
+        assertTrue(findById.maxNanos() >= findById.p50Nanos());
+
+        assertEquals(0, metrics.forOperation(DaoOperation.DELETE).totalSnapshot().count());
+    }
+
+    @Test
+    @DisplayName("counts errors and rethrows")
+    void failedCall_countedAsError() {
+        RuntimeException boom = new RuntimeException("boom");
+        when(target.delete(ID)).thenThrow(boom);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> dao.delete(ID));
+        assertSame(boom, ex);
+
+        LatencySnapshot delete = metrics.forOperation(DaoOperation.DELETE).intervalSnapshot();
+        assertEquals(1, delete.count());
+        assertEquals(1, delete.errors());
+    }
+
+    @Test
+    @DisplayName("interval snapshot is drained but totals are kept")
+    void intervalSnapshot_resetsInterval() {
+        when(target.delete(ID)).thenReturn(1);
+
+        dao.delete(ID);
+        var delete = metrics.forOperation(DaoOperation.DELETE);
+
+        assertEquals(1, delete.intervalSnapshot().count());
+        assertEquals(0, delete.intervalSnapshot().count());
+        assertEquals(1, delete.totalSnapshot().count());
+    }
+
+    @Test
+    @DisplayName("JMX reads do not take samples away from the next interval")
+    void jmxReads_doNotDrainInterval() {
+        when(target.delete(ID)).thenThrow(new RuntimeException("boom"));
+
+        assertThrows(RuntimeException.class, () -> dao.delete(ID));
+        var delete = metrics.forOperation(DaoOperation.DELETE);
+
+        assertEquals(0, delete.getCount(), "totals only move on the reporter's interval");
+        assertEquals(0, delete.getErrorCount());
+        delete.reset();
+
+        LatencySnapshot interval = delete.intervalSnapshot();
+        assertEquals(1, interval.count());
+        assertEquals(1, interval.errors());
+        assertEquals(1, delete.getCount());
+        assertEquals(1, delete.getErrorCount());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OperationSql (unit)")
+class OperationSqlTest {
+
+    @Test
+    @DisplayName("parameter shapes never contain the values")
+    void paramShapes_hideValues() {
+        OperationSql sql = OperationSql.of(DaoOperation.UPDATE_BY_ID,
+                new Object[]{7L, "Mark", "mark@test.com", 9});
+
+        assertEquals("[$1=String(4), $2=String(13), $3=Integer, $4=Long]", sql.paramShapes());
+        assertFalse(sql.paramShapes().contains("mark@test.com"));
+        assertEquals(Arrays.asList("Mark", "mark@test.com", 9, 7L), sql.params());
+    }
+
+    @Test
+    @DisplayName("null parameters are kept and shown as null")
+    void of_nullParams_kept() {
+        OperationSql sql = OperationSql.of(DaoOperation.FIND_BY_EMAIL, new Object[]{null});
+
+        assertEquals("[$1=null, $2=null]", sql.paramShapes());
+        assertEquals(2, sql.params().size());
+    }
+
+    @Test
+    @DisplayName("findByEmail is explained with the fingerprint predicate UserDaoImpl sends")
+    void of_findByEmail_fingerprintPredicate() {
+        OperationSql sql = OperationSql.of(DaoOperation.FIND_BY_EMAIL, new Object[]{"mark@test.com"});
+
+        assertTrue(sql.sql().contains("email_fp = hashtextextended(lower(?), 0) AND email = ?"), sql.sql());
+        assertEquals(Arrays.asList("mark@test.com", "mark@test.com"), sql.params());
+    }
+
+    @Test
+    @DisplayName("save binds name, email and age of the user")
+    void of_save_bindsUserFields() {
+        OperationSql sql = OperationSql.of(DaoOperation.SAVE, new Object[]{new User("Mark", "mark@test.com", 9)});
+
+        assertEquals(Arrays.asList("Mark", "mark@test.com", 9), sql.params());
+        assertTrue(sql.explainSql().startsWith("EXPLAIN (FORMAT TEXT) INSERT"));
+    }
+
+    @Test
+    @DisplayName("only lookups are explained with ANALYZE")
+    void explainSql_analyzeOnlyForLookups() {
+        assertTrue(OperationSql.of(DaoOperation.FIND_BY_ID, new Object[]{7L}).explainSql()
+                .startsWith("EXPLAIN (ANALYZE, BUFFERS) SELECT"));
+        for (DaoOperation write : new DaoOperation[]{DaoOperation.UPDATE_BY_ID, DaoOperation.UPDATE_RETURNING,
+                DaoOperation.UPSERT_BY_EMAIL, DaoOperation.DELETE}) {
+            String explain = OperationSql.of(write, new Object[]{7L, "Mark", "mark@test.com", 9}).explainSql();
+            assertFalse(explain.contains("ANALYZE"), explain);
+        }
+    }
+
+    @Test
+    @DisplayName("streamAll is explained without ANALYZE")
+    void explainSql_streamAll_withoutAnalyze() {
+        OperationSql sql = OperationSql.of(DaoOperation.STREAM_ALL, new Object[]{null});
+
+        assertEquals("EXPLAIN SELECT * FROM users ORDER BY id", sql.explainSql());
+    }
+}
@@ -0,0 +1,152 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("SlowQueryExplainer IT (PostgreSQL Testcontainers)")
+class SlowQueryExplainerIT {
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private SlowQueryExplainer explainer;
+    private TransactionalUserDaoProxy dao;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        explainer = new SlowQueryExplainer(sessionFactory, 1, Duration.ofSeconds(5));
+        dao = new TransactionalUserDaoProxy(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        explainer.close();
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    @DisplayName("plan of a lookup contains actual timings and buffer counts")
+    void explain_findByEmail_analyzedPlan() {
+        dao.save(new User("Mark", "mark@test.com", 9));
+
+        String plan = explainer.explain(OperationSql.of(DaoOperation.FIND_BY_EMAIL, new Object[]{"mark@test.com"}));
+
+        assertTrue(plan.contains("actual time="), plan);
+        assertTrue(plan.contains("Buffers:") || plan.contains("Execution Time"), plan);
+    }
+
+    @Test
+    @DisplayName("writes are planned, not executed")
+    void explain_write_notExecuted() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        String update = explainer.explain(
+                OperationSql.of(DaoOperation.UPDATE_BY_ID, new Object[]{id, "Marcus", "mark@test.com", 10}));
+        String delete = explainer.explain(OperationSql.of(DaoOperation.DELETE, new Object[]{id}));
+
+        assertTrue(update.contains("Update on users"), update);
+        assertFalse(update.contains("actual time="), update);
+        assertFalse(delete.contains("actual time="), delete);
+
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("explains beyond the per-minute limit are skipped")
+    void explainAsync_rateLimited() throws Exception {
+        CompletableFuture<String> plan = new CompletableFuture<>();
+        OperationSql statement = OperationSql.of(DaoOperation.FIND_BY_ID, new Object[]{1L});
+
+        boolean first = explainer.explainAsync(statement, plan::complete);
+        boolean second = explainer.explainAsync(statement, p -> fail("must be rate-limited"));
+
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(plan.get(10, TimeUnit.SECONDS).contains("users"));
+    }
+
+    @Test
+    @DisplayName("a full queue or a closed explainer is reported as skipped")
+    void explainAsync_queueFull_skipped() throws Exception {
+        OperationSql statement = OperationSql.of(DaoOperation.FIND_BY_ID, new Object[]{1L});
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        SlowQueryExplainer busy = new SlowQueryExplainer(sessionFactory, Integer.MAX_VALUE, Duration.ofSeconds(5));
+        try {
+            assertTrue(busy.explainAsync(statement, p -> {
+                running.countDown();
+                await(release);
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            int queued = 0;
+            while (busy.explainAsync(statement, p -> { })) {
+                queued++;
+                assertTrue(queued <= 4, "queue is bounded");
+                Thread.sleep(1);
+            }
+            assertEquals(4, queued);
+        } finally {
+            release.countDown();
+            busy.close();
+        }
+        assertFalse(busy.explainAsync(statement, p -> fail("closed")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
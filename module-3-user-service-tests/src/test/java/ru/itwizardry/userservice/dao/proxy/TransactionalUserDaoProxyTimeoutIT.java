@@ -0,0 +1,129 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.Deadline;
+import ru.itwizardry.userservice.entity.User;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("TransactionalUserDaoProxy deadlines IT (PostgreSQL Testcontainers)")
+class TransactionalUserDaoProxyTimeoutIT {
+
+    private static final Duration DEADLINE = Duration.ofMillis(300);
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private TransactionalUserDaoProxy dao;
+    private Long id;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        dao = new TransactionalUserDaoProxy(sessionFactory);
+        id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("statement blocked on a row lock is cancelled at the deadline")
+    void updateById_rowLocked_timesOut() throws SQLException {
+        try (Connection locker = lockRow(id)) {
+            long start = System.nanoTime();
+
+            DaoTimeoutException ex = assertThrows(DaoTimeoutException.class, () -> {
+                try (Deadline.Scope ignored = Deadline.within(DEADLINE)) {
+                    dao.updateById(id, "Blocked", "mark@test.com", 10);
+                }
+            });
+
+            long tookMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(tookMs < 2_000, "Call must give up near the deadline, took " + tookMs + " ms");
+            assertNotNull(ex.getCause());
+            locker.rollback();
+        }
+
+        assertEquals(1, dao.updateById(id, "Mark", "mark@test.com", 9), "Connection must be usable afterwards");
+    }
+
+    @Test
+    @DisplayName("default timeout applies when no deadline is bound")
+    void defaultTimeout_rowLocked_timesOut() throws SQLException {
+        TransactionalUserDaoProxy bounded = new TransactionalUserDaoProxy(sessionFactory, DEADLINE);
+
+        try (Connection locker = lockRow(id)) {
+            assertThrows(DaoTimeoutException.class, () -> bounded.updateReturning(id, "Blocked", "mark@test.com", 10));
+            locker.rollback();
+        }
+    }
+
+    @Test
+    @DisplayName("expired deadline fails before touching the database")
+    void expiredDeadline_failsFast() {
+        try (Deadline.Scope ignored = Deadline.within(Duration.ZERO)) {
+            var ex = assertThrows(DaoTimeoutException.class, () -> dao.findById(id));
+            assertEquals("Deadline expired before the UserDao call started", ex.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("bounded read succeeds within the deadline")
+    void findById_withinDeadline_returnsUser() {
+        try (Deadline.Scope ignored = Deadline.within(Duration.ofSeconds(5))) {
+            assertTrue(dao.findById(id).isPresent());
+        }
+    }
+
+    private static Connection lockRow(Long id) throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id FROM users WHERE id = ? FOR UPDATE")) {
+            ps.setLong(1, id);
+            ps.executeQuery().close();
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.junit.jupiter.api.*;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.dao.TxMode;
+import ru.itwizardry.userservice.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("TransactionalUserDaoProxy unit of work IT (PostgreSQL Testcontainers)")
+class TransactionalUserDaoProxyUnitOfWorkIT {
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private TransactionalUserDaoProxy dao;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        dao = new TransactionalUserDaoProxy(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    @DisplayName("all calls share one session: repeated reads return the same instance")
+    void inTransaction_repeatedReads_useFirstLevelCache() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        boolean same = dao.inTransaction(tx -> {
+            User first = tx.findById(id).orElseThrow();
+            return first == tx.findByEmail("mark@test.com").orElseThrow()
+                    && first == tx.findById(id).orElseThrow();
+        });
+
+        assertTrue(same);
+    }
+
+    @Test
+    @DisplayName("a failure rolls back every write of the unit")
+    void inTransaction_failure_rollsBackAllWrites() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        assertThrows(IllegalStateException.class, () -> dao.inTransaction(tx -> {
+            tx.updateById(id, "Marcus", "mark@test.com", 10);
+            tx.save(new User("Jane", "jane@test.com", 30));
+            throw new IllegalStateException("validation failed");
+        }));
+
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+        assertTrue(dao.findByEmail("jane@test.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("writes made inside the unit are visible to later calls of the same unit")
+    void inTransaction_readYourWrites() {
+        String name = dao.inTransaction(tx -> {
+            User saved = tx.save(new User("Mark", "mark@test.com", 9));
+            tx.updateReturning(saved.getId(), "Marcus", "mark@test.com", 10);
+            return tx.findByEmail("mark@test.com").orElseThrow().getName();
+        });
+
+        assertEquals("Marcus", name);
+    }
+
+    @Test
+    @DisplayName("read-only unit rejects writes on the database side")
+    void inTransaction_readOnly_rejectsWrites() {
+        Long id = dao.save(new User("Mark", "mark@test.com", 9)).getId();
+
+        assertThrows(RuntimeException.class, () -> dao.inTransaction(TxMode.READ_ONLY,
+                tx -> tx.updateById(id, "Marcus", "mark@test.com", 10)));
+        assertEquals("Mark", dao.findById(id).orElseThrow().getName());
+    }
+
+    @Test
+    @DisplayName("a read-write unit cannot be nested in a read-only one")
+    void inTransaction_readWriteInsideReadOnly_rejected() {
+        assertThrows(IllegalStateException.class, () -> dao.inTransaction(TxMode.READ_ONLY,
+                tx -> tx.inTransaction(TxMode.READ_WRITE, inner -> 0)));
+    }
+}
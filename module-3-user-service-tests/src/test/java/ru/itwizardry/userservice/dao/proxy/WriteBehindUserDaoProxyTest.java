@@ -0,0 +1,155 @@
+package ru.itwizardry.userservice.dao.proxy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.dao.UserBatchWriter;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.dao.UserUpdate;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WriteBehindUserDaoProxy (unit)")
+class WriteBehindUserDaoProxyTest {
+
+    private static final long ID = 1L;
+    private static final String EMAIL = "mark@test.com";
+    private static final String NEW_EMAIL = "new@test.com";
+
+    @Mock
+    private UserDao target;
+
+    @Mock
+    private UserBatchWriter batchWriter;
+
+    private WriteBehindUserDaoProxy writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new WriteBehindUserDaoProxy(target, batchWriter,
+                new WriteBehindUserDaoProxy.Settings(3, 3, Duration.ofHours(1), Duration.ofMillis(50)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    @Test
+    @DisplayName("repeated updates of one id are coalesced, last write wins")
+    @SuppressWarnings("unchecked")
+    void updateById_sameId_coalesced() {
+        assertEquals(1, writeBehind.updateById(ID, "A", EMAIL, 10));
+        assertEquals(1, writeBehind.updateById(ID, "B", EMAIL, 11));
+        assertEquals(1, writeBehind.updateById(ID, "C", EMAIL, 12));
+
+        writeBehind.flush();
+
+        ArgumentCaptor<List<UserUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter).updateAllById(captor.capture());
+        assertEquals(List.of(new UserUpdate(ID, "C", EMAIL, 12)), captor.getValue());
+        assertEquals(2, writeBehind.stats().coalesced());
+        verify(target, never()).updateById(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("reads see buffered updates before they are flushed")
+    void findById_overlaysPendingUpdate() {
+        when(target.findById(ID)).thenReturn(Optional.of(user(ID, "Old", EMAIL, 10)));
+        when(target.findByEmail(EMAIL)).thenReturn(Optional.of(user(ID, "Old", EMAIL, 10)));
+
+        writeBehind.updateById(ID, "New", NEW_EMAIL, 20);
+
+        User found = writeBehind.findById(ID).orElseThrow();
+        assertEquals("New", found.getName());
+        assertEquals(NEW_EMAIL, found.getEmail());
+        assertEquals(20, found.getAge());
+
+        assertTrue(writeBehind.findByEmail(EMAIL).isEmpty(), "Old email must no longer resolve");
+        assertEquals("New", writeBehind.findByEmail(NEW_EMAIL).orElseThrow().getName());
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    @DisplayName("updateReturning writes the pending update of its id first, then writes through")
+    void updateReturning_pendingUpdate_writtenBeforeWriteThrough() {
+        User stored = user(ID, "B", NEW_EMAIL, 12);
+        when(target.updateReturning(ID, "B", NEW_EMAIL, 12)).thenReturn(Optional.of(stored));
+
+        writeBehind.updateById(ID, "A", EMAIL, 11);
+        writeBehind.updateById(2L, "C", "c@test.com", 13);
+
+        assertSame(stored, writeBehind.updateReturning(ID, "B", NEW_EMAIL, 12).orElseThrow());
+
+        InOrder order = inOrder(batchWriter, target);
+        order.verify(batchWriter).updateAllById(List.of(new UserUpdate(ID, "A", EMAIL, 11)));
+        order.verify(target).updateReturning(ID, "B", NEW_EMAIL, 12);
+        assertEquals(1, writeBehind.stats().buffered(), "other ids stay buffered");
+    }
+
+    @Test
+    @DisplayName("updateReturning failure reaches the caller and nothing is buffered")
+    void updateReturning_targetFails_propagates() {
+        when(target.updateReturning(ID, "A", EMAIL, 10)).thenThrow(new IllegalStateException("duplicate"));
+
+        assertThrows(IllegalStateException.class, () -> writeBehind.updateReturning(ID, "A", EMAIL, 10));
+        assertEquals(0, writeBehind.stats().buffered());
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    @DisplayName("failed batch is retried row by row")
+    void flush_batchFails_retriesOneByOne() {
+        when(batchWriter.updateAllById(anyList())).thenThrow(new RuntimeException("duplicate"));
+        when(target.updateById(1L, "A", "a@test.com", 10)).thenReturn(1);
+        when(target.updateById(2L, "B", "b@test.com", 11)).thenThrow(new RuntimeException("duplicate"));
+
+        writeBehind.updateById(1L, "A", "a@test.com", 10);
+        writeBehind.updateById(2L, "B", "b@test.com", 11);
+        writeBehind.flush();
+
+        assertEquals(1, writeBehind.stats().flushed());
+        assertEquals(1, writeBehind.stats().failed());
+    }
+
+    @Test
+    @DisplayName("delete drops the buffered update of the same id")
+    void delete_dropsPendingUpdate() {
+        when(target.delete(ID)).thenReturn(1);
+
+        writeBehind.updateById(ID, "A", EMAIL, 10);
+        assertEquals(1, writeBehind.delete(ID));
+        writeBehind.flush();
+
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    @DisplayName("close() flushes buffered updates")
+    void close_flushesPending() {
+        writeBehind.updateById(ID, "A", EMAIL, 10);
+
+        writeBehind.close();
+
+        verify(batchWriter).updateAllById(List.of(new UserUpdate(ID, "A", EMAIL, 10)));
+    }
+
+    private static User user(long id, String name, String email, int age) {
+        User user = new User(name, email, age);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.itwizardry.userservice.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itwizardry.userservice.dao.DaoTimeoutException;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.service.UserService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UserHttpServer (unit, real HTTP on a free port)")
+class UserHttpServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private UserService userService;
+    private UserHttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userService = mock(UserService.class);
+        server = UserHttpServer.start(userService, new InetSocketAddress("localhost", 0));
+        baseUrl = "http://localhost:" + server.port() + UserHttpServer.BASE_PATH;
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("POST creates the user and answers 201 with Location and JSON body")
+    void post_createsUser() throws Exception {
+        when(userService.create("Mark", "mark@test.com", 9)).thenReturn(user(1L, "Mark", "mark@test.com", 9));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Mark\",\"email\":\"mark@test.com\",\"age\":9}")));
+
+        assertEquals(201, response.statusCode());
+        assertEquals("/api/users/1", response.headers().firstValue("Location").orElseThrow());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertTrue(response.body().contains("\"email\":\"mark@test.com\""));
+    }
+
+    @Test
+    @DisplayName("GET by id and by email return 200 or 404")
+    void get_byIdAndEmail() throws Exception {
+        when(userService.getById(1L)).thenReturn(user(1L, "Mark", "mark@test.com", 9));
+        when(userService.getByEmail("mark+1@test.com")).thenReturn(user(2L, "Mark", "mark+1@test.com", 9));
+
+        assertEquals(200, send(HttpRequest.newBuilder(URI.create(baseUrl + "/1"))).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(URI.create(baseUrl + "/2"))).statusCode());
+
+        HttpResponse<String> byEmail = send(HttpRequest.newBuilder(URI.create(baseUrl + "?email=mark%2B1%40test.com")));
+        assertEquals(200, byEmail.statusCode());
+        assertTrue(byEmail.body().contains("\"id\":2"));
+    }
+
+    @Test
+    @DisplayName("PUT updates and DELETE answers 204")
+    void put_andDelete() throws Exception {
+        when(userService.update(1L, "New", "new@test.com", 10)).thenReturn(user(1L, "New", "new@test.com", 10));
+
+        HttpResponse<String> updated = send(HttpRequest.newBuilder(URI.create(baseUrl + "/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"New\",\"email\":\"new@test.com\",\"age\":10}")));
+        HttpResponse<String> deleted = send(HttpRequest.newBuilder(URI.create(baseUrl + "/1")).DELETE());
+
+        assertEquals(200, updated.statusCode());
+        assertTrue(updated.body().contains("\"name\":\"New\""));
+        assertEquals(204, deleted.statusCode());
+        verify(userService).delete(1L);
+    }
+
+    @Test
+    @DisplayName("service exceptions map to 400 / 503 with an ErrorResponse-shaped body")
+    void errors_mappedToStatus() throws Exception {
+        when(userService.create(any(), any(), any()))
+                .thenThrow(new DuplicateEmailException("Email already exists: mark@test.com", null));
+        when(userService.getById(5L)).thenThrow(new DaoTimeoutException("deadline exceeded"));
+        when(userService.getById(6L)).thenThrow(new IllegalStateException("Write-behind buffer is full (10000 pending)"));
+
+        HttpResponse<String> duplicate = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Mark\",\"email\":\"mark@test.com\",\"age\":9}")));
+        assertEquals(400, duplicate.statusCode());
+        assertTrue(duplicate.body().contains("\"error\":\"Duplicate Email\""));
+
+        assertEquals(503, send(HttpRequest.newBuilder(URI.create(baseUrl + "/5"))).statusCode());
+        HttpResponse<String> unavailable = send(HttpRequest.newBuilder(URI.create(baseUrl + "/6")));
+        assertEquals(503, unavailable.statusCode());
+        assertFalse(unavailable.body().contains("Duplicate Email"), unavailable.body());
+        assertEquals(400, send(HttpRequest.newBuilder(URI.create(baseUrl + "/abc"))).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"age\":\"nine\"}"))).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(URI.create(baseUrl + "/1"))
+                .POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(URI.create(baseUrl + "/1/extra"))).statusCode());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static User user(Long id, String name, String email, Integer age) {
+        User user = new User(name, email, age);
+        user.setId(id);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
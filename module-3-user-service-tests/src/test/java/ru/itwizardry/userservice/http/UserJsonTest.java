@@ -0,0 +1,59 @@
+package ru.itwizardry.userservice.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.itwizardry.userservice.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserJson (unit)")
+class UserJsonTest {
+
+    @Test
+    @DisplayName("write() produces module-4 UserDto shape and escapes strings")
+    void write_escapesAndUsesUserDtoShape() {
+        User user = new User("Ma\"rk\\\n", "mark@test.com", 9);
+        user.setId(7L);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+
+        assertEquals("{\"id\":7,\"name\":\"Ma\\\"rk\\\\\\n\",\"email\":\"mark@test.com\",\"age\":9,"
+                + "\"createdDate\":\"2025-01-02T03:04:05\"}", UserJson.write(user));
+    }
+
+    @Test
+    @DisplayName("parseObject() reads strings, integers, booleans and null")
+    void parseObject_flatObject() {
+        Map<String, Object> fields = UserJson.parseObject(
+                " { \"name\" : \"J\\u00e9r\\u00f4me \\\"J\\\"\", \"age\": -12, \"active\": true, \"email\": null } ");
+
+        assertEquals("Jérôme \"J\"", fields.get("name"));
+        assertEquals(-12L, fields.get("age"));
+        assertEquals(Boolean.TRUE, fields.get("active"));
+        assertTrue(fields.containsKey("email"));
+        assertNull(fields.get("email"));
+    }
+
+    @Test
+    @DisplayName("written strings parse back to the same value")
+    void appendString_roundTrip() {
+        String value = "tab\t quote\" slash\\ bell\u0007 ünicode";
+        StringBuilder sb = new StringBuilder("{\"v\":");
+        UserJson.appendString(sb, value);
+
+        assertEquals(value, UserJson.parseObject(sb.append('}').toString()).get("v"));
+    }
+
+    @ParameterizedTest(name = "parseObject(\"{0}\") -> IllegalArgumentException")
+    @ValueSource(strings = {
+            "", "[]", "{", "{\"a\":1,}", "{\"a\":1.5}", "{\"a\":{}}", "{\"a\":[1]}",
+            "{\"a\":1,\"a\":2}", "{\"a\":\"x\\q\"}", "{\"a\":1} x", "{\"a\":tru}", "{\"a\":-}"
+    })
+    void parseObject_malformed_throws(String json) {
+        assertThrows(IllegalArgumentException.class, () -> UserJson.parseObject(json));
+    }
+}
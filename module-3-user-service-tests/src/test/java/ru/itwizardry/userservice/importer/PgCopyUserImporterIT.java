@@ -0,0 +1,169 @@
+package ru.itwizardry.userservice.importer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.JdbcSettings;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+import ru.itwizardry.userservice.entity.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("PgCopyUserImporter IT (COPY + PostgreSQL Testcontainers)")
+class PgCopyUserImporterIT {
+
+    @Container
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15")
+            .withDatabaseName("user_service_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    private SessionFactory sessionFactory;
+    private PgCopyUserImporter importer;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(JdbcSettings.JAKARTA_JDBC_DRIVER, "org.postgresql.Driver");
+        settings.put(JdbcSettings.JAKARTA_JDBC_URL, POSTGRES.getJdbcUrl());
+        settings.put(JdbcSettings.JAKARTA_JDBC_USER, POSTGRES.getUsername());
+        settings.put(JdbcSettings.JAKARTA_JDBC_PASSWORD, POSTGRES.getPassword());
+        settings.put(AvailableSettings.HBM2DDL_AUTO, "create");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySettings(settings)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        importer = new PgCopyUserImporter(sessionFactory);
+    }
+
+    @AfterAll
+    void tearDown() {
+        if (sessionFactory != null) sessionFactory.close();
+    }
+
+    @BeforeEach
+    void cleanDb() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from User").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    @DisplayName("valid rows are inserted, invalid rows go to rejects")
+    void importCsv_mixedRows_insertsValidAndRejectsInvalid() throws IOException {
+        Path csv = csv(
+                "name,email,age",
+                "Mark,mark@test.com,9",
+                " ,blank@test.com,10",
+                "\"Doe, John\",john@test.com,40",
+                "Old,old@test.com,151",
+                "Kid,kid@test.com,abc"
+        );
+        Path rejects = dir.resolve("rejects.csv");
+
+        ImportResult result = importer.importCsv(csv, rejects, DuplicateEmailPolicy.SKIP);
+
+        assertEquals(5, result.rowsRead());
+        assertEquals(2, result.inserted());
+        assertEquals(3, result.rejected());
+        assertEquals(List.of("john@test.com", "mark@test.com"), emails());
+        assertEquals(4, Files.readAllLines(rejects).size(), "Header + 3 rejected rows");
+    }
+
+    @Test
+    @DisplayName("quoted fields may span lines and keep their blanks; rejects report the starting line")
+    void importCsv_multilineQuotedField_keptVerbatim() throws IOException {
+        Path csv = csv(
+                "name,email,age",
+                "\"Mary",
+                "Ann\",mary@test.com,30",
+                "\"  Bob \",bob@test.com,31",
+                "Kid,kid@test.com,abc"
+        );
+        Path rejects = dir.resolve("rejects.csv");
+
+        ImportResult result = importer.importCsv(csv, rejects, DuplicateEmailPolicy.SKIP);
+
+        assertEquals(3, result.rowsRead());
+        assertEquals(2, result.inserted());
+        assertEquals(1, result.rejected());
+        assertEquals("Mary\nAnn", nameOf("mary@test.com"));
+        assertEquals("  Bob ", nameOf("bob@test.com"));
+        assertTrue(Files.readAllLines(rejects).get(1).startsWith("5,"), "Kid starts on line 5");
+    }
+
+    @Test
+    @DisplayName("SKIP keeps existing users, UPDATE overwrites them")
+    void importCsv_existingEmail_respectsPolicy() throws IOException {
+        importer.importCsv(csv("name,email,age", "Mark,mark@test.com,9"),
+                dir.resolve("r1.csv"), DuplicateEmailPolicy.SKIP);
+
+        Path update = csv("id,name,email,age,created_at", "1,Marcus,mark@test.com,10,");
+
+        ImportResult skipped = importer.importCsv(update, dir.resolve("r2.csv"), DuplicateEmailPolicy.SKIP);
+        assertEquals(0, skipped.inserted());
+        assertEquals(1, skipped.duplicates());
+        assertEquals("Mark", nameOf("mark@test.com"));
+
+        ImportResult updated = importer.importCsv(update, dir.resolve("r3.csv"), DuplicateEmailPolicy.UPDATE);
+        assertEquals(1, updated.updated());
+        assertEquals("Marcus", nameOf("mark@test.com"));
+    }
+
+    @Test
+    @DisplayName("duplicate emails within the file: last row wins")
+    void importCsv_duplicateInFile_lastRowWins() throws IOException {
+        Path csv = csv("name,email,age", "First,dup@test.com,20", "Second,dup@test.com,21");
+
+        ImportResult result = importer.importCsv(csv, dir.resolve("rejects.csv"), DuplicateEmailPolicy.SKIP);
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.duplicates());
+        assertEquals("Second", nameOf("dup@test.com"));
+    }
+
+    private Path csv(String... lines) throws IOException {
+        Path file = Files.createTempFile(dir, "users", ".csv");
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    private List<String> emails() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("select u.email from User u order by u.email", String.class).getResultList();
+        }
+    }
+
+    private String nameOf(String email) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("select u.name from User u where u.email = :email", String.class)
+                    .setParameter("email", email)
+                    .getSingleResult();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.itwizardry.userservice.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.service.UserService;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoadDriver (unit)")
+class LoadDriverTest {
+
+    private static final int KEYS = 10;
+
+    @Mock
+    private UserService service;
+
+    @Test
+    @DisplayName("seeds every key and records operations per type")
+    void run_seedsAndRecords() {
+        stubSeed();
+        WorkloadSpec spec = spec(Map.of(LoadOperation.GET_BY_ID, 3, LoadOperation.GET_BY_EMAIL, 1), 0);
+
+        LoadReport report = new LoadDriver(service, spec).run();
+
+        for (int key = 0; key < KEYS; key++) {
+            verify(service).upsert(eq(LoadKeys.name(key)), eq(LoadKeys.email(key)), anyInt());
+        }
+        assertTrue(report.results().get(LoadOperation.GET_BY_ID).count() > 0);
+        assertTrue(report.results().get(LoadOperation.GET_BY_EMAIL).count() > 0);
+        assertEquals(0, report.results().get(LoadOperation.GET_BY_ID).errors());
+        assertTrue(report.throughput() > 0);
+    }
+
+    @Test
+    @DisplayName("target rate fixes the number of operations")
+    void run_withRate_executesScheduledOperationsOnly() {
+        stubSeed();
+        WorkloadSpec spec = spec(Map.of(LoadOperation.GET_BY_ID, 1), 100);
+
+        LoadReport report = new LoadDriver(service, spec).run();
+
+        assertEquals(30, report.totalCount(), "100 ops/s over 300 ms");
+    }
+
+    @Test
+    @DisplayName("failed operations are counted as errors")
+    void run_failingOperation_countsErrors() {
+        stubSeed();
+        when(service.getById(anyLong())).thenThrow(new IllegalStateException("boom"));
+        WorkloadSpec spec = spec(Map.of(LoadOperation.GET_BY_ID, 1), 100);
+
+        LoadReport report = new LoadDriver(service, spec).run();
+
+        LoadReport.OperationResult getById = report.results().get(LoadOperation.GET_BY_ID);
+        assertEquals(getById.count(), getById.errors());
+        assertTrue(getById.errors() > 0);
+    }
+
+    private void stubSeed() {
+        when(service.upsert(anyString(), anyString(), anyInt())).thenAnswer(inv -> {
+            User user = new User(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            user.setId(1L);
+            return user;
+        });
+    }
+
+    private static WorkloadSpec spec(Map<LoadOperation, Integer> mix, int rate) {
+        return new WorkloadSpec(mix, KeyDistribution.UNIFORM, 0.99, KEYS, 4,
+                Duration.ofMillis(300), Duration.ZERO, rate);
+    }
+}
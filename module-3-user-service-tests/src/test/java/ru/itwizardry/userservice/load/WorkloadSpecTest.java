@@ -0,0 +1,85 @@
+package ru.itwizardry.userservice.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WorkloadSpec (unit)")
+class WorkloadSpecTest {
+
+    @Test
+    @DisplayName("parses all properties")
+    void fromProperties_full_parsed() {
+        Properties props = new Properties();
+        props.setProperty("mix", "getById:70, getByEmail:10,update:15,upsert:5");
+        props.setProperty("distribution", "zipfian");
+        props.setProperty("zipfian.exponent", "0.9");
+        props.setProperty("keys", "1000");
+        props.setProperty("threads", "32");
+        props.setProperty("duration.seconds", "30");
+        props.setProperty("warmup.seconds", "5");
+        props.setProperty("rate", "500");
+
+        WorkloadSpec spec = WorkloadSpec.fromProperties(props);
+
+        assertEquals(Map.of(
+                LoadOperation.GET_BY_ID, 70,
+                LoadOperation.GET_BY_EMAIL, 10,
+                LoadOperation.UPDATE, 15,
+                LoadOperation.UPSERT, 5), spec.mix());
+        assertEquals(KeyDistribution.ZIPFIAN, spec.distribution());
+        assertEquals(0.9, spec.zipfianExponent());
+        assertEquals(1000, spec.keys());
+        assertEquals(32, spec.threads());
+        assertEquals(Duration.ofSeconds(30), spec.duration());
+        assertEquals(Duration.ofSeconds(5), spec.warmup());
+        assertEquals(500, spec.targetRate());
+        assertInstanceOf(ZipfianKeyGenerator.class, spec.keyGenerator());
+    }
+
+    @Test
+    @DisplayName("optional properties fall back to defaults")
+    void fromProperties_minimal_usesDefaults() {
+        Properties props = new Properties();
+        props.setProperty("mix", "getById:1");
+        props.setProperty("keys", "10");
+        props.setProperty("duration.seconds", "1");
+
+        WorkloadSpec spec = WorkloadSpec.fromProperties(props);
+
+        assertEquals(KeyDistribution.UNIFORM, spec.distribution());
+        assertEquals(Duration.ZERO, spec.warmup());
+        assertEquals(0, spec.targetRate());
+    }
+
+    @Test
+    @DisplayName("unknown operation in mix -> IllegalArgumentException")
+    void parseMix_unknownOperation_throws() {
+        var ex = assertThrows(IllegalArgumentException.class, () -> WorkloadSpec.parseMix("getById:1,drop:5"));
+        assertEquals("Unknown operation: drop", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("missing required property -> IllegalArgumentException")
+    void fromProperties_missingKeys_throws() {
+        Properties props = new Properties();
+        props.setProperty("mix", "getById:1");
+        props.setProperty("duration.seconds", "1");
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> WorkloadSpec.fromProperties(props));
+        assertEquals("Workload property 'keys' is required", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("mix with zero total weight -> IllegalArgumentException")
+    void constructor_zeroWeights_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new WorkloadSpec(
+                Map.of(LoadOperation.GET_BY_ID, 0), KeyDistribution.UNIFORM, 0.99,
+                10, 1, Duration.ofSeconds(1), Duration.ZERO, 0));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.itwizardry.userservice.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ZipfianKeyGenerator (unit)")
+class ZipfianKeyGeneratorTest {
+
+    private static final int KEYS = 1_000;
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    @DisplayName("keys stay in range and popularity decreases with the key")
+    void next_skewedTowardsLowKeys() {
+        ZipfianKeyGenerator generator = new ZipfianKeyGenerator(KEYS, 0.99);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[KEYS];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            int key = generator.next(random);
+            assertTrue(key >= 0 && key < KEYS, "key out of range: " + key);
+            counts[key]++;
+        }
+
+        assertTrue(counts[0] > counts[1], "key 0 must be the hottest");
+        assertTrue(counts[1] > counts[10]);
+        int hottestTen = 0;
+        for (int i = 0; i < 10; i++) hottestTen += counts[i];
+        assertTrue(hottestTen > SAMPLES / 4, "1% of keys must get a large share of requests, got " + hottestTen);
+    }
+
+    @Test
+    @DisplayName("uniform generator spreads keys evenly")
+    void uniform_spreadsEvenly() {
+        UniformKeyGenerator generator = new UniformKeyGenerator(10);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[10];
+
+        for (int i = 0; i < 100_000; i++) {
+            counts[generator.next(random)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "uneven count " + count);
+        }
+    }
+
+    @Test
+    @DisplayName("exponent outside (0, 1) -> IllegalArgumentException")
+    void constructor_invalidExponent_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianKeyGenerator(KEYS, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianKeyGenerator(KEYS, 0.0));
+    }
+}
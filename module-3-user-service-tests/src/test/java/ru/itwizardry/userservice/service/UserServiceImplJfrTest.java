@@ -0,0 +1,63 @@
+package ru.itwizardry.userservice.service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itwizardry.userservice.dao.UserDao;
+import ru.itwizardry.userservice.entity.User;
+import ru.itwizardry.userservice.jfr.ServiceOperationEvent;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UserServiceImpl JFR events (unit)")
+class UserServiceImplJfrTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("service calls are recorded with OK / NOT_FOUND / INVALID outcomes")
+    void serviceCalls_recordedWithOutcome() throws Exception {
+        UserDao userDao = mock(UserDao.class);
+        when(userDao.save(any())).thenAnswer(inv -> {
+            User user = inv.getArgument(0);
+            user.setId(42L);
+            return user;
+        });
+        when(userDao.findById(5L)).thenReturn(Optional.empty());
+        UserService service = new UserServiceImpl(userDao);
+
+        Path file = dir.resolve("service.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ServiceOperationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            service.create("Mark", "mark@test.com", 9);
+            service.getById(5L);
+            assertThrows(IllegalArgumentException.class, () -> service.getById(null));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(ServiceOperationEvent.NAME))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+
+        assertEquals(3, events.size());
+        assertEquals("create", events.get(0).getString("operation"));
+        assertEquals(42L, events.get(0).getLong("userId"));
+        assertEquals("OK", events.get(0).getString("outcome"));
+        assertEquals("NOT_FOUND", events.get(1).getString("outcome"));
+        assertEquals(5L, events.get(1).getLong("userId"));
+        assertEquals("INVALID", events.get(2).getString("outcome"));
+    }
+}
@@ -11,11 +11,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itwizardry.userservice.dao.DuplicateEmailException;
 import ru.itwizardry.userservice.dao.UserDao;
 import ru.itwizardry.userservice.entity.User;
 
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -131,6 +133,20 @@ class UserServiceImplTest {
         verifyNoMoreInteractions(userDao);
     }
 
+    @Test
+    @DisplayName("create(): duplicate email -> DuplicateEmailException naming the email")
+    void create_duplicateEmail_throwsDuplicateEmailException() {
+        when(userDao.save(any(User.class))).thenThrow(duplicateEmail());
+
+        var ex = assertThrows(DuplicateEmailException.class,
+                () -> userServiceImpl.create(VALID_NAME, VALID_EMAIL, VALID_AGE));
+
+        assertEquals("Email already exists: " + VALID_EMAIL, ex.getMessage());
+
+        verify(userDao).save(any(User.class));
+        verifyNoMoreInteractions(userDao);
+    }
+
     @Test
     void create_daoThrowsRuntimeException_rethrows() {
         var cause = new SQLException("db error", "08006");
@@ -158,41 +174,26 @@ class UserServiceImplTest {
     @Test
     @DisplayName("update(): user not found -> returns null")
     void update_userNotFound_returnsNull() {
-        when(userDao.updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(0);
+        when(userDao.updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(Optional.empty());
 
         User result = userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
 
         assertNull(result);
-        verify(userDao).updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
+        verify(userDao).updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
         verifyNoMoreInteractions(userDao);
     }
 
     @Test
-    @DisplayName("update(): updated -> returns user from DAO")
+    @DisplayName("update(): updated -> returns user from DAO in a single call")
     void update_updated_returnsUserFromDao() {
         User fromDb = new User(VALID_NAME, VALID_EMAIL, VALID_AGE);
 
-        when(userDao.updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(1);
-        when(userDao.findById(VALID_ID)).thenReturn(Optional.of(fromDb));
+        when(userDao.updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(Optional.of(fromDb));
 
         User result = userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
 
         assertSame(fromDb, result);
-        verify(userDao).updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
-        verify(userDao).findById(VALID_ID);
-        verifyNoMoreInteractions(userDao);
-    }
-
-    @Test
-    void update_updatedButUserMissing_returnsNull() {
-        when(userDao.updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(1);
-        when(userDao.findById(VALID_ID)).thenReturn(Optional.empty());
-
-        User result = userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
-
-        assertNull(result);
-        verify(userDao).updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
-        verify(userDao).findById(VALID_ID);
+        verify(userDao).updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
         verifyNoMoreInteractions(userDao);
     }
 
@@ -204,13 +205,26 @@ class UserServiceImplTest {
                 new ConstraintViolationException("constraint", sql, "uk_users_email");
         RuntimeException wrapped = new RuntimeException("wrapper", cve);
 
-        when(userDao.updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenThrow(wrapped);
+        when(userDao.updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenThrow(wrapped);
 
         var ex = assertThrows(IllegalStateException.class,
                 () -> userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE));
 
         assertEquals("Email already exists: " + VALID_EMAIL, ex.getMessage());
-        verify(userDao).updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
+        verify(userDao).updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
+        verifyNoMoreInteractions(userDao);
+    }
+
+    @Test
+    @DisplayName("update(): duplicate email -> DuplicateEmailException naming the email")
+    void update_duplicateEmail_throwsDuplicateEmailException() {
+        when(userDao.updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenThrow(duplicateEmail());
+
+        var ex = assertThrows(DuplicateEmailException.class,
+                () -> userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE));
+
+        assertEquals("Email already exists: " + VALID_EMAIL, ex.getMessage());
+        verify(userDao).updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
         verifyNoMoreInteractions(userDao);
     }
 
@@ -219,13 +233,13 @@ class UserServiceImplTest {
         var cause = new SQLException("db error", "08006");
         RuntimeException boom = new RuntimeException("boom", cause);
 
-        when(userDao.updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenThrow(boom);
+        when(userDao.updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE)).thenThrow(boom);
 
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> userServiceImpl.update(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE));
 
         assertSame(boom, ex);
-        verify(userDao).updateById(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
+        verify(userDao).updateReturning(VALID_ID, VALID_NAME, VALID_EMAIL, VALID_AGE);
         verifyNoMoreInteractions(userDao);
     }
 
@@ -334,6 +348,46 @@ class UserServiceImplTest {
         verifyNoMoreInteractions(userDao);
     }
 
+    @Test
+    @DisplayName("upsert(): valid input -> delegates to upsertByEmail")
+    void upsert_valid_returnsUserFromDao() {
+        User fromDb = new User(VALID_NAME, VALID_EMAIL, VALID_AGE);
+        when(userDao.upsertByEmail(VALID_NAME, VALID_EMAIL, VALID_AGE)).thenReturn(fromDb);
+
+        assertSame(fromDb, userServiceImpl.upsert(VALID_NAME, VALID_EMAIL, VALID_AGE));
+        verify(userDao).upsertByEmail(VALID_NAME, VALID_EMAIL, VALID_AGE);
+        verifyNoMoreInteractions(userDao);
+    }
+
+    @Test
+    void upsert_invalidEmail_throwsIllegalArgumentException() {
+        var ex = assertThrows(IllegalArgumentException.class,
+                () -> userServiceImpl.upsert(VALID_NAME, " ", VALID_AGE));
+
+        assertEquals("Email cannot be null or blank", ex.getMessage());
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    void exportAll_consumerNull_throwsIllegalArgumentException() {
+        var ex = assertThrows(IllegalArgumentException.class,
+                () -> userServiceImpl.exportAll(null));
+
+        assertEquals("Consumer cannot be null", ex.getMessage());
+        verifyNoInteractions(userDao);
+    }
+
+    @Test
+    @DisplayName("exportAll(): streams users from DAO")
+    void exportAll_validConsumer_returnsStreamedCount() {
+        Consumer<User> consumer = u -> { };
+        when(userDao.streamAll(consumer)).thenReturn(3L);
+
+        assertEquals(3L, userServiceImpl.exportAll(consumer));
+        verify(userDao).streamAll(consumer);
+        verifyNoMoreInteractions(userDao);
+    }
+
     @Test
     void delete_idNull_throwsIllegalArgumentException() {
         var ex = assertThrows(IllegalArgumentException.class,
@@ -353,4 +407,10 @@ class UserServiceImplTest {
         verify(userDao).delete(VALID_ID);
         verifyNoMoreInteractions(userDao);
     }
+
+    private static DuplicateEmailException duplicateEmail() {
+        SQLException sql = new SQLException("duplicate key", "23505");
+        return new DuplicateEmailException("Email already exists",
+                new ConstraintViolationException("constraint", sql, "uk_users_email"));
+    }
 }
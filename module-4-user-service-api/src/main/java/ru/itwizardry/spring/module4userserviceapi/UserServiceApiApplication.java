@@ -4,9 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableAsync;
 import ru.itwizardry.spring.module4userserviceapi.config.AppKafkaProperties;
+import ru.itwizardry.spring.module4userserviceapi.config.DbBulkheadProperties;
 
-@EnableConfigurationProperties(AppKafkaProperties.class)
+@EnableAsync
+@EnableConfigurationProperties({AppKafkaProperties.class, DbBulkheadProperties.class})
 @SpringBootApplication
 public class UserServiceApiApplication {
 
@@ -0,0 +1,15 @@
+package ru.itwizardry.spring.module4userserviceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * @param permits       concurrent database calls; {@code null} means the Hikari maximum pool size
+ * @param exportPermits concurrent streamed exports, counted within {@code permits};
+ *                      {@code null} means a quarter of them (at least one)
+ * @param queueTimeout  how long a call may wait for a permit before it is rejected
+ */
+@ConfigurationProperties(prefix = "app.db-bulkhead")
+public record DbBulkheadProperties(Integer permits, Integer exportPermits, Duration queueTimeout) {
+}
@@ -1,19 +1,34 @@
 package ru.itwizardry.spring.module4userserviceapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserCreateRequest;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserDto;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserUpdateRequest;
 import ru.itwizardry.spring.module4userserviceapi.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/users")
@@ -21,7 +36,15 @@ import java.util.List;
 @Validated
 public class UserController {
 
+    private static final int MIN_AGE = 1;
+    private static final int MAX_AGE = 150;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    // search pages are served by users_age_id_idx; any other order would sort the whole range
+    private static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("age", "id");
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(
@@ -42,14 +65,95 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    /**
+     * Users with exactly {@code age}, or within {@code [minAge, maxAge]} (either bound may be omitted),
+     * one page at a time ordered by age and id. {@code sort} may only name {@code age} and {@code id}
+     * with one direction, which applies to both; anything else is rejected with 400.
+     */
     @GetMapping("/search")
-    public List<UserDto> findByAge(@RequestParam @Min(1) int age) {
-        return userService.findByAge(age);
+    public PagedModel<UserDto> findByAge(
+            @RequestParam(required = false) @Min(MIN_AGE) @Max(MAX_AGE) Integer age,
+            @RequestParam(required = false) @Min(MIN_AGE) @Max(MAX_AGE) Integer minAge,
+            @RequestParam(required = false) @Min(MIN_AGE) @Max(MAX_AGE) Integer maxAge,
+            @PageableDefault(size = 20, sort = {"age", "id"}) Pageable requested
+    ) {
+        Pageable pageable = indexOrdered(requested);
+        if (age != null) {
+            if (minAge != null || maxAge != null) {
+                throw new IllegalArgumentException("Use either age or minAge/maxAge, not both");
+            }
+            return new PagedModel<>(userService.findByAge(age, age, pageable));
+        }
+        if (minAge == null && maxAge == null) {
+            throw new IllegalArgumentException("age, minAge or maxAge is required");
+        }
+        return new PagedModel<>(userService.findByAge(
+                minAge == null ? MIN_AGE : minAge,
+                maxAge == null ? MAX_AGE : maxAge,
+                pageable));
+    }
+
+    private static Pageable indexOrdered(Pageable pageable) {
+        Sort.Direction direction = null;
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty()
+                        + "; search can only be sorted by age and id");
+            }
+            if (direction != null && direction != order.getDirection()) {
+                throw new IllegalArgumentException("age and id must be sorted in the same direction");
+            }
+            direction = order.getDirection();
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(direction == null ? Sort.Direction.ASC : direction, "age", "id"));
     }
 
+    /**
+     * Keyset page of users in id order. A full page carries a {@code Link: <...>; rel="next"} header
+     * with {@code after} set to its last id; a shorter page is the last one.
+     */
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<List<UserDto>> getUsers(
+            @RequestParam(defaultValue = "0") @Min(0) long after,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) @Min(1) @Max(MAX_LIMIT) int limit
+    ) {
+        List<UserDto> users = userService.getUsersAfter(after, limit);
+        if (users.size() < limit) {
+            return ResponseEntity.ok(users);
+        }
+
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", users.getLast().id())
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(users);
+    }
+
+    /**
+     * All users as newline-delimited JSON, written row by row from a database cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = out -> {
+            AtomicLong written = new AtomicLong();
+            userService.streamAllUsers(user -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(user));
+                    out.write('\n');
+                    if (written.incrementAndGet() == 1) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
@@ -3,6 +3,7 @@ package ru.itwizardry.spring.module4userserviceapi.event.kafka;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
@@ -18,6 +19,8 @@ public class UserCreatedKafkaListener {
     private final KafkaTemplate<String, UserEventDto> kafkaTemplate;
     private final AppKafkaProperties props;
 
+    // off the request thread: a slow broker (metadata fetch, full buffer) must not hold the DB bulkhead permit
+    @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void on(UserCreatedEvent event) {
         UserEventDto dto = UserEventDto.userCreated(
@@ -0,0 +1,9 @@
+package ru.itwizardry.spring.module4userserviceapi.exception;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(Duration queueTimeout) {
+        super("Database is busy: no connection slot within " + queueTimeout.toMillis() + " ms");
+    }
+}
@@ -1,18 +1,63 @@
 package ru.itwizardry.spring.module4userserviceapi.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.itwizardry.spring.module4userserviceapi.model.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Probes the {@code email_fp} index (hash of the lower-cased email) and confirms the full email.
+     */
+    @Query(value = """
+            select exists (
+                select 1 from users
+                 where email_fp = hashtextextended(lower(:email), 0)
+                   and email = :email
+            )
+            """, nativeQuery = true)
     boolean existsByEmail(String email);
 
+    @Query(value = """
+            select * from users
+             where email_fp = hashtextextended(lower(:email), 0)
+               and email = :email
+            """, nativeQuery = true)
     Optional<User> findByEmail(String email);
 
+    /**
+     * Inclusive age range, served by the {@code users_age_id_idx} index on {@code (age, id)}.
+     */
+    Page<User> findByAgeBetween(int minAge, int maxAge, Pageable pageable);
+
+    /**
+     * Keyset page: the next {@code limit} users after {@code afterId}, read from the primary key index.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(long afterId, Limit limit);
+
+    /**
+     * Server-side cursor over all users in id order; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAllOrderById();
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("delete from User u where u.id = :id")
     int deleteByIdReturningCount(Long id);
@@ -0,0 +1,67 @@
+package ru.itwizardry.spring.module4userserviceapi.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import ru.itwizardry.spring.module4userserviceapi.dto.UserCreateRequest;
+import ru.itwizardry.spring.module4userserviceapi.dto.UserDto;
+import ru.itwizardry.spring.module4userserviceapi.dto.UserUpdateRequest;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs every {@link UserServiceImpl} call under the {@link DbBulkhead}. It wraps the transactional
+ * proxy, so the permit is taken before a connection is borrowed and released after commit. A
+ * streamed export holds its permit for as long as it holds the cursor, so it runs under
+ * {@link DbBulkhead#runExport} and only a few exports can pin connections at once.
+ */
+@Primary
+@Service
+public class BulkheadUserService implements UserService {
+
+    private final UserService delegate;
+    private final DbBulkhead bulkhead;
+
+    public BulkheadUserService(@Qualifier("userServiceImpl") UserService delegate, DbBulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public UserDto createUser(UserCreateRequest request) {
+        return bulkhead.call(() -> delegate.createUser(request));
+    }
+
+    @Override
+    public UserDto updateUser(Long id, UserUpdateRequest request) {
+        return bulkhead.call(() -> delegate.updateUser(id, request));
+    }
+
+    @Override
+    public void deleteUser(Long id) {
+        bulkhead.run(() -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return bulkhead.call(() -> delegate.getUserById(id));
+    }
+
+    @Override
+    public Page<UserDto> findByAge(int minAge, int maxAge, Pageable pageable) {
+        return bulkhead.call(() -> delegate.findByAge(minAge, maxAge, pageable));
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        return bulkhead.call(() -> delegate.getUsersAfter(afterId, limit));
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<UserDto> consumer) {
+        bulkhead.runExport(() -> delegate.streamAllUsers(consumer));
+    }
+}
@@ -0,0 +1,118 @@
+package ru.itwizardry.spring.module4userserviceapi.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.stereotype.Component;
+import ru.itwizardry.spring.module4userserviceapi.config.DbBulkheadProperties;
+import ru.itwizardry.spring.module4userserviceapi.exception.BulkheadFullException;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent database work at the connection pool size. With virtual threads there can be far
+ * more requests in flight than connections; instead of all of them queueing inside Hikari for up to
+ * its connection timeout, callers wait at most {@code queueTimeout} for a permit and then fail fast
+ * with {@link BulkheadFullException}. The semaphore is fair, so waiting callers are served in order.
+ * <p>
+ * A streamed export holds its permit and connection for the whole download, so exports first take
+ * one of a smaller pool of export permits: however many clients download at once, at most
+ * {@code exportPermits} connections are pinned and the rest stay free for regular requests.
+ */
+@Component
+public class DbBulkhead {
+
+    private static final int DEFAULT_PERMITS = 10;
+    private static final Duration DEFAULT_QUEUE_TIMEOUT = Duration.ofMillis(200);
+
+    private final Semaphore permits;
+    private final Semaphore exportPermits;
+    private final Duration queueTimeout;
+
+    public DbBulkhead(DbBulkheadProperties props, DataSource dataSource) {
+        this(permits(props, dataSource),
+                props.exportPermits() != null ? props.exportPermits() : defaultExportPermits(permits(props, dataSource)),
+                props.queueTimeout() != null ? props.queueTimeout() : DEFAULT_QUEUE_TIMEOUT);
+    }
+
+    public DbBulkhead(int permits, Duration queueTimeout) {
+        this(permits, defaultExportPermits(permits), queueTimeout);
+    }
+
+    public DbBulkhead(int permits, int exportPermits, Duration queueTimeout) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be > 0");
+        }
+        if (exportPermits <= 0 || exportPermits > permits) {
+            throw new IllegalArgumentException("exportPermits must be > 0 and <= permits");
+        }
+        this.queueTimeout = Objects.requireNonNull(queueTimeout, "queueTimeout must not be null");
+        if (queueTimeout.isNegative()) {
+            throw new IllegalArgumentException("queueTimeout must not be negative");
+        }
+        this.permits = new Semaphore(permits, true);
+        this.exportPermits = new Semaphore(exportPermits, true);
+    }
+
+    public <T> T call(Supplier<T> work) {
+        acquire(permits);
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a long-lived export under an export permit and a regular permit.
+     */
+    public void runExport(Runnable work) {
+        acquire(exportPermits);
+        try {
+            run(work);
+        } finally {
+            exportPermits.release();
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int availableExportPermits() {
+        return exportPermits.availablePermits();
+    }
+
+    private void acquire(Semaphore semaphore) {
+        try {
+            if (!semaphore.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException(queueTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(queueTimeout);
+        }
+    }
+
+    private static int permits(DbBulkheadProperties props, DataSource dataSource) {
+        return props.permits() != null ? props.permits() : poolSize(dataSource);
+    }
+
+    private static int defaultExportPermits(int permits) {
+        return Math.max(1, permits / 4);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : DEFAULT_PERMITS;
+    }
+}
@@ -1,10 +1,13 @@
 package ru.itwizardry.spring.module4userserviceapi.service;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserCreateRequest;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserDto;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserUpdateRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto createUser(UserCreateRequest request);
@@ -15,7 +18,15 @@ public interface UserService {
 
     UserDto getUserById(Long id);
 
-    List<UserDto> findByAge(int age);
+    Page<UserDto> findByAge(int minAge, int maxAge, Pageable pageable);
 
-    List<UserDto> getAllUsers();
+    /**
+     * Up to {@code limit} users with id greater than {@code afterId}, in id order.
+     */
+    List<UserDto> getUsersAfter(long afterId, int limit);
+
+    /**
+     * Passes every user to {@code consumer} in id order without holding the whole table in memory.
+     */
+    void streamAllUsers(Consumer<UserDto> consumer);
 }
@@ -1,8 +1,12 @@
 package ru.itwizardry.spring.module4userserviceapi.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itwizardry.spring.module4userserviceapi.domain.event.UserCreatedEvent;
@@ -16,6 +20,8 @@ import ru.itwizardry.spring.module4userserviceapi.model.User;
 import ru.itwizardry.spring.module4userserviceapi.repository.UserRepository;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -25,6 +31,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Transactional
     public UserDto createUser(UserCreateRequest request) {
@@ -81,17 +88,28 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserDto> findByAge(int age) {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getAge() == age)
-                .map(userMapper::toDto)
-                .toList();
+    public Page<UserDto> findByAge(int minAge, int maxAge, Pageable pageable) {
+        if (minAge > maxAge) {
+            throw new IllegalArgumentException("minAge must not be greater than maxAge");
+        }
+        return userRepository.findByAgeBetween(minAge, maxAge, pageable)
+                .map(userMapper::toDto);
     }
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
                 .map(userMapper::toDto)
                 .toList();
     }
+
+    @Override
+    public void streamAllUsers(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            users.forEach(user -> {
+                consumer.accept(userMapper.toDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
 }
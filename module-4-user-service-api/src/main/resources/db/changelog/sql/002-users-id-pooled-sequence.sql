@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset yourname:002-users-id-pooled-sequence
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+--rollback ALTER SEQUENCE users_id_seq INCREMENT BY 1;
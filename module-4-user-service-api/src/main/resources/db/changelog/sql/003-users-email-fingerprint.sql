@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset yourname:003-users-email-fingerprint
+ALTER TABLE users ADD COLUMN email_fp BIGINT GENERATED ALWAYS AS (hashtextextended(lower(email), 0)) STORED;
+CREATE INDEX users_email_fp_idx ON users (email_fp);
+--rollback DROP INDEX users_email_fp_idx;
+--rollback ALTER TABLE users DROP COLUMN email_fp;
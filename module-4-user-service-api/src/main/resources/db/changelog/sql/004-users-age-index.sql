@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset yourname:004-users-age-index
+CREATE INDEX users_age_id_idx ON users (age, id);
+--rollback DROP INDEX users_age_id_idx;
@@ -3,27 +3,44 @@ package ru.itwizardry.spring.module4userserviceapi.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserCreateRequest;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserDto;
 import ru.itwizardry.spring.module4userserviceapi.dto.UserUpdateRequest;
+import ru.itwizardry.spring.module4userserviceapi.exception.BulkheadFullException;
 import ru.itwizardry.spring.module4userserviceapi.exception.DuplicateEmailException;
 import ru.itwizardry.spring.module4userserviceapi.exception.UserNotFoundException;
 import ru.itwizardry.spring.module4userserviceapi.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -102,18 +119,74 @@ class UserControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/users — возвращает список пользователей")
-    void getAllUsers_returnsList() throws Exception {
+    @DisplayName("GET /api/users — неполная страница без ссылки на следующую")
+    void getUsers_lastPage_returnsListWithoutNextLink() throws Exception {
         List<UserDto> users = List.of(
                 new UserDto(1L, "Test1", "t1@example.com", 25, LocalDateTime.now()),
                 new UserDto(2L, "Test2", "t2@example.com", 35, LocalDateTime.now())
         );
 
-        Mockito.when(userService.getAllUsers()).thenReturn(users);
+        Mockito.when(userService.getUsersAfter(0L, 100)).thenReturn(users);
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @DisplayName("GET /api/users?after=&limit= — полная страница со ссылкой rel=next")
+    void getUsers_fullPage_returnsNextLink() throws Exception {
+        List<UserDto> users = List.of(
+                new UserDto(11L, "Test11", "t11@example.com", 25, LocalDateTime.now()),
+                new UserDto(12L, "Test12", "t12@example.com", 35, LocalDateTime.now())
+        );
+
+        Mockito.when(userService.getUsersAfter(10L, 2)).thenReturn(users);
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("after=12")))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("limit=2")))
+                .andExpect(header().string(HttpHeaders.LINK, endsWith("; rel=\"next\"")));
+    }
+
+    @Test
+    @DisplayName("GET /api/users — 400, если limit больше максимального")
+    void getUsers_limitTooLarge_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Constraint Violation"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users (Accept: application/x-ndjson) — по одному JSON-объекту на строку")
+    void streamUsers_ndjson_writesOneObjectPerLine() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(new UserDto(1L, "Test1", "t1@example.com", 25, null));
+            consumer.accept(new UserDto(2L, "Test2", "t2@example.com", 35, null));
+            return null;
+        }).when(userService).streamAllUsers(any());
+
+        MvcResult started = mockMvc.perform(get("/api/users")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), UserDto.class).email()).isEqualTo("t1@example.com");
+        assertThat(objectMapper.readValue(lines.get(1), UserDto.class).id()).isEqualTo(2L);
     }
 
     @Test
@@ -123,13 +196,99 @@ class UserControllerTest {
                 new UserDto(1L, "Young", "y@example.com", 20, LocalDateTime.now())
         );
 
-        Mockito.when(userService.findByAge(20)).thenReturn(users);
+        Mockito.when(userService.findByAge(eq(20), eq(20), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(users, PageRequest.of(0, 20), 1));
 
         mockMvc.perform(get("/api/users/search")
                         .param("age", "20"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].age").value(20));
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].age").value(20))
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/search — диапазон возрастов и пагинация передаются в сервис")
+    void searchByAge_range_passesBoundsAndPageable() throws Exception {
+        List<UserDto> users = List.of(
+                new UserDto(3L, "Mid", "m@example.com", 25, LocalDateTime.now())
+        );
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+
+        Mockito.when(userService.findByAge(eq(18), eq(150), pageable.capture()))
+                .thenReturn(new PageImpl<>(users, PageRequest.of(1, 1), 3));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("minAge", "18")
+                        .param("page", "1")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.page.number").value(1))
+                .andExpect(jsonPath("$.page.totalPages").value(3));
+
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by("age", "id"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/search — направление сортировки применяется к индексному порядку age, id")
+    void searchByAge_sortDesc_keepsIndexOrder() throws Exception {
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+
+        Mockito.when(userService.findByAge(eq(20), eq(20), pageable.capture()))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("age", "20")
+                        .param("sort", "id,desc"))
+                .andExpect(status().isOk());
+
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "age", "id"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/search — 400 на сортировку по неизвестному или неиндексированному полю")
+    void searchByAge_unsupportedSort_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/search")
+                        .param("age", "20")
+                        .param("sort", "nosuchfield"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Input"));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("age", "20")
+                        .param("sort", "name,asc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Input"));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("age", "20")
+                        .param("sort", "age,asc")
+                        .param("sort", "id,desc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Input"));
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("GET /api/users/search — 400, если нет ни age, ни диапазона")
+    void searchByAge_noCriteria_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Input"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/search — 400, если age передан вместе с диапазоном")
+    void searchByAge_ageAndRange_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/search")
+                        .param("age", "20")
+                        .param("maxAge", "30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Input"));
     }
 
     @Test
@@ -154,6 +313,20 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.error").value("User Not Found"));
     }
 
+    @Test
+    @DisplayName("GET /api/users/{id} — 503 и Retry-After, если пул соединений занят")
+    void getUserById_bulkheadFull_returnsServiceUnavailable() throws Exception {
+        Long id = 7L;
+
+        Mockito.when(userService.getUserById(id))
+                .thenThrow(new BulkheadFullException(Duration.ofMillis(200)));
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
     @Test
     @DisplayName("GET /api/users/{id} — 500, если произошла внутренняя ошибка")
     void getUserById_unexpectedError_returnsInternalServerError() throws Exception {
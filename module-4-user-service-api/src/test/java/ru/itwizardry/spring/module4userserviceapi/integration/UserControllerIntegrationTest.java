@@ -1,6 +1,9 @@
 package ru.itwizardry.spring.module4userserviceapi.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +19,13 @@ import ru.itwizardry.spring.module4userserviceapi.dto.UserUpdateRequest;
 import ru.itwizardry.spring.module4userserviceapi.event.dto.UserEventDto;
 import ru.itwizardry.spring.module4userserviceapi.model.User;
 import ru.itwizardry.spring.module4userserviceapi.repository.UserRepository;
+import ru.itwizardry.spring.module4userserviceapi.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +46,12 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     @DisplayName("PUT /api/users/{id} — пользователь успешно обновляется")
     void updateUser_shouldUpdateCorrectly() throws Exception {
@@ -114,4 +128,74 @@ class UserControllerIntegrationTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.email").value("testuser@example.com"))
                 .andExpect(jsonPath("$.age").value(29));
     }
+
+    @Test
+    @DisplayName("GET /api/users/search — диапазон возрастов фильтруется в БД постранично")
+    void searchByAgeRange_shouldReturnRequestedPage() throws Exception {
+        userRepository.save(User.builder().name("Teen").email("teen@example.com").age(17).build());
+        User first = userRepository.save(User.builder().name("First").email("first@example.com").age(20).build());
+        User second = userRepository.save(User.builder().name("Second").email("second@example.com").age(25).build());
+        userRepository.save(User.builder().name("Senior").email("senior@example.com").age(70).build());
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("minAge", "18")
+                        .param("maxAge", "30")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(first.getId()))
+                .andExpect(jsonPath("$.page.totalElements").value(2));
+
+        mockMvc.perform(get("/api/users/search")
+                        .param("minAge", "18")
+                        .param("maxAge", "30")
+                        .param("size", "1")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(second.getId()));
+    }
+
+    @Test
+    @DisplayName("GET /api/users?after=&limit= — keyset-пагинация по id")
+    void getUsers_keysetPages_followNextLink() throws Exception {
+        User first = userRepository.save(User.builder().name("First").email("k1@example.com").age(21).build());
+        User second = userRepository.save(User.builder().name("Second").email("k2@example.com").age(22).build());
+        User third = userRepository.save(User.builder().name("Third").email("k3@example.com").age(23).build());
+        long before = first.getId() - 1;
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", String.valueOf(before))
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()))
+                .andExpect(header().string("Link", containsString("after=" + second.getId())));
+
+        mockMvc.perform(get("/api/users")
+                        .param("after", String.valueOf(second.getId()))
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(third.getId()))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    @DisplayName("streamAllUsers — курсор отдаёт всех пользователей по порядку id и отсоединяет сущности")
+    void streamAllUsers_shouldVisitEveryUserInIdOrder() {
+        User first = userRepository.save(User.builder().name("First").email("s1@example.com").age(31).build());
+        User second = userRepository.save(User.builder().name("Second").email("s2@example.com").age(32).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = new ArrayList<>();
+        userService.streamAllUsers(user -> ids.add(user.id()));
+
+        assertThat(ids).containsSubsequence(first.getId(), second.getId());
+        assertThat(ids).isSorted();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount())
+                .as("streamed users must not accumulate in the persistence context")
+                .isZero();
+    }
 }
@@ -0,0 +1,149 @@
+package ru.itwizardry.spring.module4userserviceapi.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itwizardry.spring.module4userserviceapi.exception.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DbBulkheadTest {
+
+    @Test
+    @DisplayName("call — возвращает результат и освобождает разрешение")
+    void call_returnsResult_andReleasesPermit() {
+        DbBulkhead bulkhead = new DbBulkhead(2, Duration.ofMillis(50));
+
+        assertThat(bulkhead.call(() -> 42)).isEqualTo(42);
+        assertThat(bulkhead.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("call — разрешение освобождается и при исключении")
+    void call_failingWork_releasesPermit() {
+        DbBulkhead bulkhead = new DbBulkhead(1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> bulkhead.call(() -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("call — BulkheadFullException, если все разрешения заняты дольше queue-timeout")
+    void call_noPermitWithinTimeout_failsFast() throws Exception {
+        DbBulkhead bulkhead = new DbBulkhead(1, Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> holder = executor.submit(() -> bulkhead.run(() -> {
+                holding.countDown();
+                await(release);
+            }));
+            assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> bulkhead.call(() -> "never"))
+                    .isInstanceOf(BulkheadFullException.class)
+                    .hasMessageContaining("50 ms");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("call — параллельно выполняется не больше permits вызовов")
+    void call_manyVirtualThreads_neverExceedsPermits() {
+        int permits = 3;
+        DbBulkhead bulkhead = new DbBulkhead(permits, Duration.ofSeconds(10));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> bulkhead.run(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(1);
+                    inFlight.decrementAndGet();
+                }));
+            }
+        }
+
+        assertThat(maxInFlight.get()).isBetween(1, permits);
+        assertThat(bulkhead.availablePermits()).isEqualTo(permits);
+    }
+
+    @Test
+    @DisplayName("runExport — выгрузки ограничены своим пулом, обычные вызовы проходят")
+    void runExport_exportPermitsTaken_regularCallsStillServed() throws Exception {
+        DbBulkhead bulkhead = new DbBulkhead(3, 1, Duration.ofMillis(50));
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> export = executor.submit(() -> bulkhead.runExport(() -> {
+                exporting.countDown();
+                await(release);
+            }));
+            assertThat(exporting.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(bulkhead.availablePermits()).isEqualTo(2);
+
+            assertThatThrownBy(() -> bulkhead.runExport(() -> {
+            })).isInstanceOf(BulkheadFullException.class);
+            assertThat(bulkhead.call(() -> 42)).isEqualTo(42);
+            assertThat(bulkhead.call(() -> 43)).isEqualTo(43);
+
+            release.countDown();
+            export.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(bulkhead.availablePermits()).isEqualTo(3);
+        assertThat(bulkhead.availableExportPermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("конструктор — exportPermits в пределах (0, permits]")
+    void constructor_exportPermitsOutOfRange_throws() {
+        assertThatThrownBy(() -> new DbBulkhead(2, 0, Duration.ofMillis(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DbBulkhead(2, 3, Duration.ofMillis(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new DbBulkhead(8, Duration.ofMillis(10)).availableExportPermits()).isEqualTo(2);
+        assertThat(new DbBulkhead(1, Duration.ofMillis(10)).availableExportPermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("конструктор — permits должен быть положительным")
+    void constructor_nonPositivePermits_throws() {
+        assertThatThrownBy(() -> new DbBulkhead(0, Duration.ofMillis(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}